@@ -7,6 +7,7 @@ import model.transaction.Enquiry;
 import model.user.Applicant;
 
 import service.ApplicationService;
+import service.ProjectPage;
 
 import java.util.List;
 
@@ -29,6 +30,19 @@ public class ApplicantController {
         projectController.showEligibleProjects(applicant, projects);
     }
 
+    /**
+     * Displays one page of the eligible projects for the given applicant.
+     *
+     * @param applicant the applicant requesting to view eligible projects
+     * @param projects  the full list of available BTO projects
+     * @param after     the cursor returned for the previous page, or null for the first page
+     * @param pageSize  the maximum number of projects to display
+     * @return the cursor of the next page, or null if this was the last page
+     */
+    public ProjectPage.Cursor viewProjectsPage(Applicant applicant, List<Project> projects, ProjectPage.Cursor after, int pageSize) {
+        return projectController.showEligibleProjectsPage(applicant, projects, after, pageSize);
+    }
+
     /**
      * Allows an applicant to apply for a project with the specified flat type.
      *
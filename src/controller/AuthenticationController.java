@@ -1,6 +1,7 @@
 package controller;
 
 import model.user.User;
+import service.LoginThrottle;
 import service.UserService;
 import service.ValidationService;
 
@@ -11,14 +12,35 @@ import service.ValidationService;
 public class AuthenticationController {
 
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
 
     /**
-     * Constructs an AuthenticationController with the given UserService.
+     * Constructs an AuthenticationController with the given UserService and the default login throttle.
      *
      * @param userService the user service used for authentication and password management
      */
     public AuthenticationController(UserService userService) {
+        this(userService, new LoginThrottle());
+    }
+
+    /**
+     * Constructs an AuthenticationController with the given UserService and login throttle.
+     *
+     * @param userService the user service used for authentication and password management
+     * @param loginThrottle the throttle limiting repeated failed logins per NRIC
+     */
+    public AuthenticationController(UserService userService, LoginThrottle loginThrottle) {
         this.userService = userService;
+        this.loginThrottle = loginThrottle;
+    }
+
+    /**
+     * Gets the login throttle, whose counters report accepted, rejected and throttled logins.
+     *
+     * @return the login throttle
+     */
+    public LoginThrottle getLoginThrottle() {
+        return loginThrottle;
     }
 
     /**
@@ -45,10 +67,20 @@ public class AuthenticationController {
             return null;
         }
 
-        return userService.authenticate(nric, password).orElseGet(() -> {
+        // Refused before the user lookup and password hashing, so repeated failures stay cheap
+        if (!loginThrottle.tryAcquire(nric)) {
+            System.out.println("[ERROR] Too many failed login attempts. Please try again later.");
+            return null;
+        }
+
+        User user = userService.authenticate(nric, password).orElse(null);
+        if (user == null) {
+            loginThrottle.recordFailure(nric);
             System.out.println("[ERROR] Incorrect NRIC or password. Please try again.");
             return null;
-        });
+        }
+        loginThrottle.recordSuccess(nric);
+        return user;
     }
 
     /**
@@ -1,5 +1,8 @@
 package controller;
 
+import data.Journal;
+import data.OfficerAssignmentIndex;
+import data.ProjectRepository;
 import model.project.Project;
 import model.project.ProjectSearchCriteria;
 import model.project.FlatType;
@@ -11,6 +14,10 @@ import model.user.HDBOfficer;
 import model.user.MaritalStatus;
 import model.transaction.Application;
 import model.transaction.ApplicationStatus;
+import service.BallotResult;
+import service.BallotService;
+import service.BookingHold;
+import service.BookingReservationService;
 import service.ProjectService;
 
 import java.time.LocalDate;
@@ -23,6 +30,9 @@ import java.util.stream.Collectors;
  * for projects, as well as approve/reject officer registrations and applications.
  */
 public class ManagerController {
+    private final BookingReservationService reservations = OfficerController.getSharedReservations();
+    private final BallotService ballotService = new BallotService(reservations);
+
     /**
      * Constructs a ManagerController instance.
      * This constructor can be used for initialization if needed.
@@ -39,10 +49,8 @@ public class ManagerController {
      */
     public boolean canCreateNewProject(HDBManager manager, Project newProject) {
         // Check if project name exists in ProjectRepository
-        for (Project existing : ProjectService.getAllProjects()) {
-            if (existing.getProjectName().equals(newProject.getProjectName())) {
-                return false;
-            }
+        if (ProjectRepository.findByName(newProject.getProjectName()) != null) {
+            return false;
         }
 
         // Check if the new project overlaps with any existing projects managed by the manager
@@ -100,6 +108,7 @@ public class ManagerController {
         project.setMaxOfficerSlots(newmaxOfficer);
         project.setVisible(newVisible);
         project.setApplicationPeriod(newOpen, newClose);
+        ProjectRepository.reindex(project);
     }
     /**
      * Deletes a project from the manager's list and the project service.
@@ -119,6 +128,7 @@ public class ManagerController {
      */
     public void toggleVisibility(Project project, boolean visible) {
         project.setVisible(visible);
+        ProjectRepository.reindex(project);
     }
 
     // Officer Registration Logic
@@ -163,6 +173,7 @@ public class ManagerController {
             project.addOfficer(officer);
             officer.assignProject(project);
             officer.setProjectRegistrationStatus(project, OfficerRegistrationStatus.APPROVED);
+            OfficerAssignmentIndex.assign(officer, project);
         }
     }
     /**
@@ -199,8 +210,24 @@ public class ManagerController {
      */
     public void approveApplication(Application app) {
         app.approve();
+        Journal.record(Journal.Op.APPROVE, app.getApplicant().getNric());
         // maybe update booking status too?
     }
+    /**
+     * Decides the pending applications of the given projects by ballot and reports the outcome.
+     * 
+     * @param projects the projects whose pending applications are balloted
+     * @param seed the seed to draw the ballot with, so that it can be reproduced
+     * @return the result of the ballot
+     * @throws IllegalStateException if the ballot fails or is interrupted
+     */
+    public BallotResult runBallot(List<Project> projects, long seed) {
+        BallotResult result = ballotService.runBallot(projects, seed);
+        System.out.printf("Ballot %d: %d successful and %d unsuccessful applications in %d ballots (%.1f ms, %.0f applications/s).%n",
+                result.getSeed(), result.getSuccessfulCount(), result.getUnsuccessfulCount(), result.getBallotCount(),
+                result.getElapsedNanos() / 1e6, result.getApplicationsPerSecond());
+        return result;
+    }
     /**
      * Rejects an application and updates its status accordingly.
      * 
@@ -208,26 +235,36 @@ public class ManagerController {
      */
     public void rejectApplication(Application app) {
         app.reject();
+        Journal.record(Journal.Op.REJECT, app.getApplicant().getNric());
     }
     /**
      * Approves a withdrawal request for an application.
+     * A booked flat, or a unit still held for booking, is returned to the project.
      * 
      * @param app the application whose withdrawal request is to be approved
      */
     public void approveWithdrawal(Application app) {
-        if (app.getStatus() == ApplicationStatus.PENDING) {
-            app.getApplicant().setApplication(null);
-            app.getProject().getApplications().remove(app);
-        }
-        else if (app.getStatus() == ApplicationStatus.BOOKED) {
-            Project project = app.getProject();
-            project.setNumUnits(app.getFlatType(), project.getNumUnits(app.getFlatType()) + 1);
-            app.withdraw();
-        }
-        else {
-            app.withdraw();
+        // Held like a booking confirmation, so the application cannot be booked between the check and the withdrawal
+        synchronized (app) {
+            if (app.getStatus() == ApplicationStatus.PENDING) {
+                app.getApplicant().setApplication(null);
+                app.getProject().getApplications().remove(app);
+            }
+            else if (app.getStatus() == ApplicationStatus.BOOKED) {
+                Project project = app.getProject();
+                project.release(app.getFlatType());
+                ProjectRepository.reindex(project);
+                app.withdraw();
+            }
+            else {
+                BookingHold hold = reservations.findHold(app);
+                if (hold != null) {
+                    reservations.release(hold);
+                }
+                app.withdraw();
+            }
         }
-
+        Journal.record(Journal.Op.APPROVE_WITHDRAWAL, app.getApplicant().getNric());
     }
     /**
      * Rejects a withdrawal request for an application.
@@ -236,6 +273,7 @@ public class ManagerController {
      */
     public void rejectWithdrawal(Application app) {
         app.cancelWithdrawalRequest();
+        Journal.record(Journal.Op.REJECT_WITHDRAWAL, app.getApplicant().getNric());
     }
     /**
      * Retrieves all enquiries related to the specified projects.
@@ -373,10 +411,10 @@ public class ManagerController {
      * @return the project with the specified name, or null if not found
      */
     public Project findProjectByName(String projectName, HDBManager manager) {
-        for (Project project : manager.getManagedProjects()) {
-            if (project.getProjectName().equals(projectName)) {
-                return project;
-            }
+        Project project = ProjectRepository.findByName(projectName);
+        if (project != null && project.getProjectName().equals(projectName)
+                && manager.getManagedProjects().contains(project)) {
+            return project;
         }
         return null;
     }
@@ -9,8 +9,13 @@ import model.transaction.OfficerProjectRegistration;
 import model.transaction.OfficerRegistrationStatus;
 import model.user.Applicant;
 import model.user.HDBOfficer;
+import service.BookingHold;
+import service.BookingReservationService;
 import service.ProjectService;
 
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -19,14 +24,33 @@ import java.util.List;
  * viewing, and application status updates.
  */
 public class OfficerController {
+    /** The reservations shared by every officer session, so that each application has at most one hold. */
+    private static final BookingReservationService SHARED_RESERVATIONS = new BookingReservationService();
+
     private ProjectService projectService = new ProjectService();
+    private final BookingReservationService reservationService;
 
     /**
-     * Constructs an OfficerController instance.
-     * This constructor can be used for initialization if needed.
+     * Constructs an OfficerController instance that books flats through the reservations shared by all officers.
      */
     public OfficerController() {
-        // Constructor can be used for initialization if needed
+        this(SHARED_RESERVATIONS);
+    }
+    /**
+     * Constructs an OfficerController instance that books flats through the given reservations.
+     *
+     * @param reservationService The service holding and booking flat units.
+     */
+    public OfficerController(BookingReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+    /**
+     * Gets the reservations shared by all officers, whose held units other services must treat as taken.
+     *
+     * @return The shared reservations.
+     */
+    static BookingReservationService getSharedReservations() {
+        return SHARED_RESERVATIONS;
     }
     /**
      * Retrieves a list of available projects for an officer.
@@ -180,34 +204,70 @@ public class OfficerController {
     }
 
     /**
-     * Changes the application status of an applicant to 'BOOKED' if the applicant's
-     * status is currently 'SUCCESSFUL' and there are available flats of the selected type.
+     * Holds one flat of the selected type for a successful applicant while the booking is being confirmed.
+     * The unit is taken out of the project's inventory until the hold is confirmed, released or expires.
      *
-     * @param applicant The applicant whose application status is to be changed.
-     * @return True if the status was successfully changed, false otherwise.
+     * @param applicant The applicant to hold a flat for.
+     * @return The hold, or null if no flat could be held.
      */
-    public boolean changeApplicationStatusToBooked(Applicant applicant) {
+    public BookingHold holdFlat(Applicant applicant) {
         Application app = applicant.getApplication();
-        if (app.getProject().getFlatUnits().get(app.getFlatType()) == 0) {
-            System.out.println("No available flats of this type.");
-            return false;
+        FlatType flatType = app.getFlatType();
+        BookingHold hold;
+        try {
+            hold = reservationService.placeHold(app);
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            return null;
         }
+        LocalTime expiry = LocalTime.ofInstant(Instant.ofEpochMilli(hold.getExpiresAtMillis()), ZoneId.systemDefault());
+        System.out.println("One flat of type " + flatType + " is held until " + expiry.withNano(0) + ". Remaining flats: " + app.getProject().getNumUnits(flatType));
+        return hold;
+    }
 
-        if (app.getStatus() == ApplicationStatus.SUCCESSFUL) {
-            app.setStatus(ApplicationStatus.BOOKED);
-
-            Project project = app.getProject();
-            if (project != null) {
-                FlatType flatType = app.getFlatType();
-                project.decreaseRemainingFlats(flatType);
+    /**
+     * Confirms a held flat, changing the applicant's application status to 'BOOKED'.
+     *
+     * @param hold The hold to confirm.
+     * @return True if the status was successfully changed, false otherwise.
+     */
+    public boolean confirmBooking(BookingHold hold) {
+        Application app = hold.getApplication();
+        try {
+            if (!reservationService.confirm(hold)) {
+                System.out.println(hold.isExpired() ? "The hold on this flat has expired." : "The hold on this flat has been released.");
+                return false;
             }
-
-            System.out.println("Applicant's status changed to BOOKED. Flat type selected: " + app.getFlatType());
-            return true;
-        } else {
-            System.out.println("Applicant's status cannot be changed to BOOKED because they are not SUCCESSFUL.");
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
             return false;
         }
+        System.out.println("Applicant's status changed to BOOKED. Flat type selected: " + app.getFlatType());
+        return true;
+    }
+
+    /**
+     * Releases a held flat without booking it, returning the unit to the project.
+     *
+     * @param hold The hold to release.
+     */
+    public void releaseHold(BookingHold hold) {
+        if (reservationService.release(hold)) {
+            System.out.println("The held flat has been released.");
+        }
+    }
+
+    /**
+     * Changes the application status of an applicant to 'BOOKED' if the applicant's
+     * status is currently 'SUCCESSFUL' and there are available flats of the selected type.
+     * The flat is held and confirmed in one step, so officers booking at the same time cannot oversell a flat type.
+     *
+     * @param applicant The applicant whose application status is to be changed.
+     * @return True if the status was successfully changed, false otherwise.
+     */
+    public boolean changeApplicationStatusToBooked(Applicant applicant) {
+        BookingHold hold = holdFlat(applicant);
+        return hold != null && confirmBooking(hold);
     }
 
     /**
@@ -8,6 +8,8 @@ import model.project.ProjectSearchCriteria;
 import model.transaction.Application;
 import model.user.Applicant;
 
+import service.EligibilityCache;
+import service.ProjectPage;
 import service.ProjectService;
 import service.ApplicationService;
 
@@ -51,17 +53,10 @@ public class ProjectController {
 
         for (Project project : projects) {
             boolean isNotVisible = !projectService.isProjectVisibleToApplicant(applicant, project);
-            String[] displays = getFlatTypeDisplays(applicant, project);
+            String[] displays = getSelectedFlatTypeDisplays(applicant, project);
             String twoRoomDisplay = displays[0];
             String threeRoomDisplay = displays[1];
 
-            if (!applicant.getSearchCriteria().getFlatTypes().contains(FlatType.TWO_ROOM) && applicant.getSearchCriteria().getFlatTypes().size() >= 1) {
-                twoRoomDisplay = "NA";
-            }
-            if (!applicant.getSearchCriteria().getFlatTypes().contains(FlatType.THREE_ROOM) && applicant.getSearchCriteria().getFlatTypes().size() >= 1) {
-                threeRoomDisplay = "NA";
-            }
-
             boolean noEligibleFlats = twoRoomDisplay.equals("NA") && threeRoomDisplay.equals("NA");
 
             if (isNotVisible || noEligibleFlats) {
@@ -77,6 +72,50 @@ public class ProjectController {
         }
     }
 
+    /**
+     * Displays one page of the eligible projects for an applicant based on their search criteria.
+     * Only the projects on the page are looked up and sorted. The applicant's own application is shown after the last page.
+     *
+     * @param applicant The applicant requesting the eligible projects.
+     * @param projects The list of all available projects to filter and display.
+     * @param after The cursor returned for the previous page, or null for the first page.
+     * @param pageSize The maximum number of projects to display.
+     * @return The cursor of the next page, or null if this was the last page.
+     */
+    public ProjectPage.Cursor showEligibleProjectsPage(Applicant applicant, List<Project> projects, ProjectPage.Cursor after, int pageSize) {
+        ProjectPage page = projectService.findEligibleProjectsPage(applicant, projects, applicant.getSearchCriteria(), after, pageSize);
+
+        if (page.getProjects().isEmpty() && after == null) {
+            System.out.println("No eligible projects found at the moment.");
+        }
+        for (Project project : page.getProjects()) {
+            String[] displays = getSelectedFlatTypeDisplays(applicant, project);
+            displayProjectDetails(project, displays[0], displays[1]);
+        }
+        if (!page.hasNext()) {
+            displayApplicantApplication(applicant);
+        }
+        return page.getNext();
+    }
+
+    /**
+     * Retrieves the flat type displays for a project, showing "NA" for flat types not selected in the applicant's criteria.
+     *
+     * @param applicant The applicant whose eligibility and criteria are checked.
+     * @param project The project to retrieve flat type details for.
+     * @return A string array containing the two-room and three-room displays.
+     */
+    private String[] getSelectedFlatTypeDisplays(Applicant applicant, Project project) {
+        String[] displays = getFlatTypeDisplays(applicant, project);
+        if (!applicant.getSearchCriteria().getFlatTypes().contains(FlatType.TWO_ROOM) && applicant.getSearchCriteria().getFlatTypes().size() >= 1) {
+            displays[0] = "NA";
+        }
+        if (!applicant.getSearchCriteria().getFlatTypes().contains(FlatType.THREE_ROOM) && applicant.getSearchCriteria().getFlatTypes().size() >= 1) {
+            displays[1] = "NA";
+        }
+        return displays;
+    }
+
     /**
      * Retrieves the available flat types and their respective available units for the project, based on the applicant's eligibility.
      *
@@ -88,11 +127,11 @@ public class ProjectController {
         String twoRoomDisplay = "NA";
         String threeRoomDisplay = "NA";
 
-        if (project.getFlatUnits().containsKey(FlatType.TWO_ROOM) && applicant.isEligible(project, FlatType.TWO_ROOM)) {
+        if (EligibilityCache.isEligible(applicant, project, FlatType.TWO_ROOM)) {
             twoRoomDisplay = String.valueOf(project.getFlatUnits().get(FlatType.TWO_ROOM));
         }
         
-        if (project.getFlatUnits().containsKey(FlatType.THREE_ROOM) && applicant.isEligible(project, FlatType.THREE_ROOM)) {
+        if (EligibilityCache.isEligible(applicant, project, FlatType.THREE_ROOM)) {
             threeRoomDisplay = String.valueOf(project.getFlatUnits().get(FlatType.THREE_ROOM));
         }
 
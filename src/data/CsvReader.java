@@ -0,0 +1,445 @@
+package data;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+/**
+ * The CsvReader class provides a streaming, single-pass reader for CSV files.
+ * Rows are parsed directly from a reusable character buffer, so no per-line String or String[] is allocated;
+ * callers read the fields of the current row through typed accessors instead.
+ * Fields may be wrapped in double quotes to contain commas or line breaks, and a doubled quote inside
+ * a quoted field stands for a literal quote. Whitespace around unquoted fields is trimmed.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLen;
+    private boolean endOfInput;
+
+    // Unescaped characters of the current row; fields are [fieldStart[i], fieldEnd[i]) ranges into it
+    private char[] row = new char[256];
+    private int rowLen;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+    private long rowNumber;
+
+    /**
+     * Constructs a CsvReader over the given character stream.
+     *
+     * @param reader The source of CSV text. It is closed when this reader is closed.
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+    /**
+     * Opens a CsvReader on a UTF-8 encoded file. A leading byte order mark is skipped.
+     *
+     * @param filePath The path to the CSV file.
+     * @return A CsvReader positioned before the first row of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static CsvReader open(String filePath) throws IOException {
+        return new CsvReader(new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8));
+    }
+    /**
+     * Advances to the next non-blank row of the file.
+     *
+     * @return true if a row was read, false if the end of the file has been reached.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    public boolean nextRow() throws IOException {
+        while (true) {
+            if (!fill()) {
+                return false;
+            }
+            parseRow();
+            if (fieldCount > 1 || fieldEnd[0] > fieldStart[0]) {
+                return true;
+            }
+        }
+    }
+    /**
+     * Skips the header row of the file.
+     *
+     * @return true if a header row was present, false if the file is empty.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    public boolean skipHeader() throws IOException {
+        return nextRow();
+    }
+    /**
+     * Returns the number of fields in the current row.
+     *
+     * @return The field count of the current row.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+    /**
+     * Returns the 1-based number of the current row in the file, counting the header and blank rows.
+     *
+     * @return The current row number.
+     */
+    public long rowNumber() {
+        return rowNumber;
+    }
+    /**
+     * Checks whether the given field of the current row is missing or empty.
+     *
+     * @param index The zero-based field index.
+     * @return true if the field does not exist or contains no characters.
+     */
+    public boolean isEmpty(int index) {
+        return index >= fieldCount || fieldEnd[index] == fieldStart[index];
+    }
+    /**
+     * Returns the given field of the current row as a String.
+     *
+     * @param index The zero-based field index.
+     * @return The field value, or an empty string if the field does not exist.
+     */
+    public String getString(int index) {
+        if (index >= fieldCount) {
+            return "";
+        }
+        return new String(row, fieldStart[index], fieldEnd[index] - fieldStart[index]);
+    }
+    /**
+     * Parses the given field of the current row as an int without creating an intermediate String.
+     *
+     * @param index The zero-based field index.
+     * @return The parsed integer.
+     * @throws NumberFormatException If the field is not a valid integer.
+     */
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw fieldError(index, "integer");
+        }
+        return (int) value;
+    }
+    /**
+     * Parses the given field of the current row as a long without creating an intermediate String.
+     *
+     * @param index The zero-based field index.
+     * @return The parsed long.
+     * @throws NumberFormatException If the field is not a valid integer.
+     */
+    public long getLong(int index) {
+        int pos = checkField(index, "integer");
+        int end = fieldEnd[index];
+        boolean negative = false;
+        if (row[pos] == '-' || row[pos] == '+') {
+            negative = row[pos] == '-';
+            pos++;
+        }
+        if (pos == end || end - pos > 18) {
+            throw fieldError(index, "integer");
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = row[pos] - '0';
+            if (digit < 0 || digit > 9) {
+                throw fieldError(index, "integer");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+    /**
+     * Parses the given field of the current row as a double.
+     * Plain decimals such as {@code 350000.00} are parsed directly from the buffer;
+     * other notations fall back to {@link Double#parseDouble(String)}.
+     *
+     * @param index The zero-based field index.
+     * @return The parsed double.
+     * @throws NumberFormatException If the field is not a valid number.
+     */
+    public double getDouble(int index) {
+        int pos = checkField(index, "number");
+        int end = fieldEnd[index];
+        boolean negative = false;
+        if (row[pos] == '-' || row[pos] == '+') {
+            negative = row[pos] == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; pos < end; pos++) {
+            char c = row[pos];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        // Exact when both the mantissa and the power of ten are representable, since one division rounds correctly
+        if (pos == end && digits > 0 && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = fractionDigits > 0 ? (double) mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(getString(index));
+        } catch (NumberFormatException e) {
+            throw fieldError(index, "number");
+        }
+    }
+    /**
+     * Parses the given field of the current row as a boolean. Only "true" (in any case) is true.
+     *
+     * @param index The zero-based field index.
+     * @return The parsed boolean.
+     */
+    public boolean getBoolean(int index) {
+        return equalsIgnoreCase(index, "true");
+    }
+    /**
+     * Parses the given field of the current row as an ISO date in the format yyyy-MM-dd.
+     *
+     * @param index The zero-based field index.
+     * @return The parsed date.
+     * @throws IllegalArgumentException If the field is not a valid date in the expected format.
+     */
+    public LocalDate getDate(int index) {
+        int pos = checkField(index, "date");
+        if (fieldEnd[index] - pos != 10 || row[pos + 4] != '-' || row[pos + 7] != '-') {
+            throw fieldError(index, "date");
+        }
+        int year = digits(index, pos, 4);
+        int month = digits(index, pos + 5, 2);
+        int day = digits(index, pos + 8, 2);
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw fieldError(index, "date");
+        }
+    }
+    /**
+     * Resolves the given field of the current row to an enum constant by case-insensitive name.
+     *
+     * @param <E> The enum type.
+     * @param index The zero-based field index.
+     * @param type The enum class to resolve against.
+     * @return The matching enum constant.
+     * @throws IllegalArgumentException If no constant of the enum matches the field.
+     */
+    public <E extends Enum<E>> E getEnum(int index, Class<E> type) {
+        for (E constant : type.getEnumConstants()) {
+            if (equalsIgnoreCase(index, constant.name())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Row " + rowNumber + ": unknown " + type.getSimpleName()
+                + " '" + getString(index) + "'");
+    }
+    /**
+     * Compares the given field of the current row with a string, ignoring case, without allocating.
+     *
+     * @param index The zero-based field index.
+     * @param value The string to compare against.
+     * @return true if the field equals the string ignoring case.
+     */
+    public boolean equalsIgnoreCase(int index, String value) {
+        if (index >= fieldCount) {
+            return value.isEmpty();
+        }
+        int start = fieldStart[index];
+        int length = fieldEnd[index] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = row[start + i];
+            char b = value.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Closes the underlying character stream.
+     *
+     * @throws IOException If an I/O error occurs while closing.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    /**
+     * Ensures the buffer holds at least one unread character.
+     *
+     * @return true if a character is available, false at the end of input.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private boolean fill() throws IOException {
+        if (bufferPos < bufferLen) {
+            return true;
+        }
+        if (endOfInput) {
+            return false;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        // Skip a UTF-8 byte order mark at the very start of the file
+        int start = (rowNumber == 0 && bufferLen == 0 && buffer[0] == '\uFEFF') ? 1 : 0;
+        bufferPos = start;
+        bufferLen = read;
+        return bufferPos < bufferLen || fill();
+    }
+    /**
+     * Parses one physical row (which may span several lines inside quotes) into the row buffer.
+     *
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private void parseRow() throws IOException {
+        rowLen = 0;
+        fieldCount = 0;
+        rowNumber++;
+        boolean insideQuotes = false;
+        boolean quoted = false;
+        int start = 0;
+        int trimEnd = 0;
+        while (fill()) {
+            char c = buffer[bufferPos++];
+            if (insideQuotes) {
+                if (c == '"') {
+                    if (fill() && buffer[bufferPos] == '"') {
+                        bufferPos++;
+                        append(c);
+                    } else {
+                        insideQuotes = false;
+                    }
+                } else {
+                    append(c);
+                }
+                trimEnd = rowLen;
+            } else if (c == ',') {
+                endField(start, quoted ? trimEnd : trimmedEnd(start));
+                start = rowLen;
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && fill() && buffer[bufferPos] == '\n') {
+                    bufferPos++;
+                }
+                break;
+            } else if (c == '"' && rowLen == start) {
+                insideQuotes = true;
+                quoted = true;
+            } else if (rowLen == start && (c == ' ' || c == '\t')) {
+                // Skip leading whitespace of an unquoted field
+            } else if (!quoted) {
+                append(c);
+            }
+        }
+        endField(start, quoted ? trimEnd : trimmedEnd(start));
+    }
+    /**
+     * Returns the end of the current unquoted field with trailing whitespace removed.
+     *
+     * @param start The start offset of the field in the row buffer.
+     * @return The trimmed end offset.
+     */
+    private int trimmedEnd(int start) {
+        int end = rowLen;
+        while (end > start && (row[end - 1] == ' ' || row[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+    /**
+     * Appends a character to the row buffer, growing it if necessary.
+     *
+     * @param c The character to append.
+     */
+    private void append(char c) {
+        if (rowLen == row.length) {
+            row = Arrays.copyOf(row, row.length * 2);
+        }
+        row[rowLen++] = c;
+    }
+    /**
+     * Records the bounds of a completed field.
+     *
+     * @param start The start offset of the field in the row buffer.
+     * @param end The end offset of the field in the row buffer.
+     */
+    private void endField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+    /**
+     * Verifies that a field exists and is not empty.
+     *
+     * @param index The zero-based field index.
+     * @param expected A description of the expected value, used in the error message.
+     * @return The start offset of the field.
+     */
+    private int checkField(int index, String expected) {
+        if (isEmpty(index)) {
+            throw fieldError(index, expected);
+        }
+        return fieldStart[index];
+    }
+    /**
+     * Parses a fixed-width run of decimal digits from the row buffer.
+     *
+     * @param index The field index, used in the error message.
+     * @param pos The offset of the first digit.
+     * @param count The number of digits to parse.
+     * @return The parsed value.
+     */
+    private int digits(int index, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            int digit = row[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw fieldError(index, "date");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+    /**
+     * Builds the exception thrown when a field cannot be parsed as the expected type.
+     *
+     * @param index The zero-based field index.
+     * @param expected A description of the expected value.
+     * @return The exception describing the row, field, and offending value.
+     */
+    private NumberFormatException fieldError(int index, String expected) {
+        return new NumberFormatException("Row " + rowNumber + ", field " + (index + 1)
+                + ": expected " + expected + " but found '" + getString(index) + "'");
+    }
+}
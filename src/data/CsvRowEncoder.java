@@ -0,0 +1,224 @@
+package data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Locale;
+/**
+ * The CsvRowEncoder class builds CSV rows field by field in a reusable buffer, so that saving many records does not
+ * allocate a format string, a boxed value or an intermediate string per field. Fields are quoted only when needed:
+ * values containing a separator, a quote or a line break, or with leading or trailing whitespace, are wrapped in
+ * quotes with inner quotes doubled, which is exactly what {@link CsvReader} reads back.
+ * <p>
+ * An encoder holds the row being built and is not thread-safe; each save uses its own encoder.
+ */
+public class CsvRowEncoder {
+    private final StringBuilder row = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private boolean firstField = true;
+
+    /**
+     * Encodes the given fields as a single CSV row, terminated by a line feed.
+     *
+     * @param fields The field values; null values are written as empty fields.
+     * @return The encoded row.
+     */
+    public static String encode(String... fields) {
+        return new CsvRowEncoder().addAll(fields).toRow();
+    }
+    /**
+     * Adds a text field, quoting it if necessary.
+     *
+     * @param value The field value, or null for an empty field.
+     * @return This encoder.
+     */
+    public CsvRowEncoder add(String value) {
+        separate();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            row.append(value);
+            return this;
+        }
+        row.append('"');
+        int from = 0;
+        for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', i + 1)) {
+            row.append(value, from, i + 1).append('"');
+            from = i + 1;
+        }
+        row.append(value, from, value.length()).append('"');
+        return this;
+    }
+    /**
+     * Adds several text fields in order.
+     *
+     * @param values The field values; null values are written as empty fields.
+     * @return This encoder.
+     */
+    public CsvRowEncoder addAll(String... values) {
+        for (String value : values) {
+            add(value);
+        }
+        return this;
+    }
+    /**
+     * Adds an integer field.
+     *
+     * @param value The field value.
+     * @return This encoder.
+     */
+    public CsvRowEncoder add(int value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+    /**
+     * Adds a boolean field as {@code true} or {@code false}.
+     *
+     * @param value The field value.
+     * @return This encoder.
+     */
+    public CsvRowEncoder add(boolean value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+    /**
+     * Adds an enum field as the name of the constant.
+     *
+     * @param value The field value, or null for an empty field.
+     * @return This encoder.
+     */
+    public CsvRowEncoder add(Enum<?> value) {
+        separate();
+        if (value != null) {
+            row.append(value.name());
+        }
+        return this;
+    }
+    /**
+     * Adds a date field in ISO format (yyyy-MM-dd).
+     *
+     * @param date The field value, or null for an empty field.
+     * @return This encoder.
+     */
+    public CsvRowEncoder add(LocalDate date) {
+        separate();
+        if (date == null) {
+            return this;
+        }
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            // Years outside four digits carry a sign or extra digits; leave them to LocalDate
+            row.append(date);
+            return this;
+        }
+        row.append(year).append('-');
+        appendTwoDigits(date.getMonthValue());
+        row.append('-');
+        appendTwoDigits(date.getDayOfMonth());
+        return this;
+    }
+    /**
+     * Adds a price with exactly two decimal places, rounded half up like {@code %.2f}.
+     *
+     * @param value The field value.
+     * @return This encoder.
+     */
+    public CsvRowEncoder addPrice(double value) {
+        separate();
+        long cents = Math.round(value * 100);
+        // Prices are almost always whole cents; anything else is rounded through BigDecimal to match %.2f exactly
+        if (Double.doubleToRawLongBits(value) >= 0 && value < 1e15 && cents / 100.0 == value) {
+            row.append(cents / 100).append('.');
+            appendTwoDigits((int) (cents % 100));
+        } else if (Double.isFinite(value) && value != 0) {
+            row.append(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        } else {
+            row.append(String.format(Locale.ROOT, "%.2f", value));
+        }
+        return this;
+    }
+    /**
+     * Returns the row built so far, terminated by a line feed, and starts a new row.
+     *
+     * @return The encoded row.
+     */
+    public String toRow() {
+        String encoded = row.append('\n').toString();
+        reset();
+        return encoded;
+    }
+    /**
+     * Writes the row built so far, terminated by a line feed, and starts a new row.
+     * The row is copied through a reusable character buffer instead of being turned into a string.
+     *
+     * @param writer The writer to write the row to.
+     * @throws IOException If writing fails.
+     */
+    public void writeRowTo(Writer writer) throws IOException {
+        row.append('\n');
+        int length = row.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        row.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+        reset();
+    }
+    /**
+     * Appends the row built so far, terminated by a line feed, to a builder and starts a new row.
+     *
+     * @param target The builder to append the row to.
+     */
+    public void appendRowTo(StringBuilder target) {
+        target.append(row).append('\n');
+        reset();
+    }
+    /**
+     * Discards the row built so far.
+     */
+    public void reset() {
+        row.setLength(0);
+        firstField = true;
+    }
+    /**
+     * Writes the field separator unless the next field is the first of the row.
+     */
+    private void separate() {
+        if (firstField) {
+            firstField = false;
+        } else {
+            row.append(',');
+        }
+    }
+    /**
+     * Appends a number from 0 to 99 as two digits.
+     *
+     * @param value The number.
+     */
+    private void appendTwoDigits(int value) {
+        row.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+    /**
+     * Checks whether a field must be quoted to be read back unchanged.
+     *
+     * @param value A non-empty field value.
+     * @return true if the value contains a separator, quote or line break, or starts or ends with whitespace.
+     */
+    private static boolean needsQuotes(String value) {
+        if (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
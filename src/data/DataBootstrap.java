@@ -0,0 +1,284 @@
+package data;
+
+import model.project.Project;
+import model.user.Applicant;
+import model.user.HDBManager;
+import model.user.HDBOfficer;
+import model.user.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+/**
+ * The DataBootstrap class loads every CSV file needed at startup, running independent files in parallel.
+ * The three user files are parsed concurrently; projects wait only for officers and managers, and
+ * applications and enquiries wait for all users and projects. The time spent on each file is recorded.
+ * When a binary snapshot newer than the project, application and enquiry files and their delta logs exists,
+ * those three files are loaded from the snapshot instead, and the delta logs are left for a later compaction;
+ * otherwise the delta logs are folded into the files and a new snapshot is written after loading them.
+ */
+public class DataBootstrap {
+    // File names loaded from the data directory, in reporting order
+    static final String APPLICANT_FILE = "ApplicantList.csv";
+    static final String OFFICER_FILE = "OfficerList.csv";
+    static final String MANAGER_FILE = "ManagerList.csv";
+    static final String PROJECT_FILE = "ProjectList.csv";
+    static final String APPLICATION_FILE = "ApplicationList.csv";
+    static final String ENQUIRY_FILE = "EnquiryList.csv";
+    /** Binary cache of the project, application and enquiry files, see {@link SnapshotWriter}. */
+    static final String SNAPSHOT_FILE = "data.snapshot";
+    private static final String[] FILES = {
+        APPLICANT_FILE, OFFICER_FILE, MANAGER_FILE, SNAPSHOT_FILE, PROJECT_FILE, APPLICATION_FILE, ENQUIRY_FILE
+    };
+
+    private final String dataDirectory;
+    private final DataLoader dataLoader = new DataLoader();
+    private final Map<String, Long> timings = new ConcurrentHashMap<>();
+
+    private List<Applicant> applicants;
+    private List<HDBOfficer> officers;
+    private List<HDBManager> managers;
+    private List<Project> projects;
+    private List<User> allUsers;
+    private EntityIndex index;
+    private long totalMillis;
+    private long snapshotWriteMillis = -1;
+
+    /**
+     * Constructs a DataBootstrap that reads the CSV files from the given directory.
+     *
+     * @param dataDirectory The directory containing the CSV files, ending with a path separator.
+     */
+    public DataBootstrap(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+    /**
+     * Loads all data files, using one worker thread per independent file up to the number of available cores.
+     *
+     * @throws IOException If a file that is required for startup cannot be read.
+     */
+    public void load() throws IOException {
+        int threads = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            // The snapshot is written after every save, so it already contains the changes in the delta logs
+            boolean snapshotFresh = SnapshotReader.isFresh(path(SNAPSHOT_FILE),
+                    path(PROJECT_FILE), path(APPLICATION_FILE), path(ENQUIRY_FILE),
+                    path(PROJECT_FILE) + IncrementalSaver.DELTA_SUFFIX,
+                    path(APPLICATION_FILE) + IncrementalSaver.DELTA_SUFFIX,
+                    path(ENQUIRY_FILE) + IncrementalSaver.DELTA_SUFFIX);
+
+            CompletableFuture<List<Applicant>> applicantsFuture =
+                    timed(APPLICANT_FILE, () -> dataLoader.loadApplicants(path(APPLICANT_FILE)), executor);
+            CompletableFuture<List<HDBOfficer>> officersFuture =
+                    timed(OFFICER_FILE, () -> dataLoader.loadOfficers(path(OFFICER_FILE)), executor);
+            CompletableFuture<List<HDBManager>> managersFuture =
+                    timed(MANAGER_FILE, () -> dataLoader.loadHDBManagers(path(MANAGER_FILE)), executor);
+
+            if (snapshotFresh) {
+                CompletableFuture.allOf(applicantsFuture, officersFuture, managersFuture).join();
+                collectUsers(applicantsFuture.join(), officersFuture.join(), managersFuture.join());
+                index = new EntityIndex(allUsers, List.of());
+                if (loadSnapshot()) {
+                    return;
+                }
+                // The snapshot was unreadable and nothing was linked, so the CSV files are loaded instead
+                index = null;
+            }
+            // Fold changes saved incrementally in earlier sessions back into the CSV files before parsing them
+            IncrementalSaver.applyPendingDeltas(dataDirectory);
+
+            // Projects only need officers and managers to resolve names
+            CompletableFuture<List<Project>> projectsFuture = officersFuture.thenCombine(managersFuture, (o, m) -> {
+                EntityIndex projectIndex = new EntityIndex();
+                projectIndex.addUsers(o);
+                projectIndex.addUsers(m);
+                return projectIndex;
+            }).thenCompose(projectIndex -> timed(PROJECT_FILE, () -> {
+                try {
+                    return DataLoader.loadProjects(path(PROJECT_FILE), projectIndex);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+
+            CompletableFuture.allOf(applicantsFuture, projectsFuture).join();
+
+            projects = projectsFuture.join();
+            collectUsers(applicantsFuture.join(), officersFuture.join(), managersFuture.join());
+            index = new EntityIndex(allUsers, projects);
+
+            // Applications and enquiries touch disjoint fields of applicants and projects, so they can run together
+            CompletableFuture<Void> applicationsFuture = timed(APPLICATION_FILE, () -> {
+                // The application file is by far the largest, so it is itself parsed in parallel chunks
+                dataLoader.loadApplicationsInChunks(path(APPLICATION_FILE), index, Runtime.getRuntime().availableProcessors());
+                return null;
+            }, executor);
+            CompletableFuture<Void> enquiriesFuture = timed(ENQUIRY_FILE, () -> {
+                dataLoader.loadEnquiries(path(ENQUIRY_FILE), index);
+                return null;
+            }, executor);
+            CompletableFuture.allOf(applicationsFuture, enquiriesFuture).join();
+
+            // Cache what was just parsed so that the next startup can skip the CSV files
+            long snapshotStart = System.nanoTime();
+            DataSaver.saveSnapshot(path(SNAPSHOT_FILE), projects);
+            snapshotWriteMillis = (System.nanoTime() - snapshotStart) / 1_000_000;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+            totalMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+    /**
+     * Loads projects, applications and enquiries from the snapshot, linking them to the loaded users.
+     *
+     * @return true if the snapshot was loaded, false if it could not be read and the CSV files must be loaded.
+     */
+    private boolean loadSnapshot() {
+        long start = System.nanoTime();
+        try {
+            projects = SnapshotReader.read(path(SNAPSHOT_FILE), index);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Ignoring snapshot: " + e.getMessage());
+            return false;
+        } finally {
+            timings.put(SNAPSHOT_FILE, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    /**
+     * Combines the loaded users into the list of all users.
+     *
+     * @param applicants The loaded applicants.
+     * @param officers The loaded officers.
+     * @param managers The loaded managers.
+     */
+    private void collectUsers(List<Applicant> applicants, List<HDBOfficer> officers, List<HDBManager> managers) {
+        this.applicants = applicants;
+        this.officers = officers;
+        this.managers = managers;
+        allUsers = new ArrayList<>();
+        allUsers.addAll(applicants);
+        allUsers.addAll(officers);
+        allUsers.addAll(managers);
+    }
+    /**
+     * Prints the time taken to load each file and the total wall-clock startup time.
+     */
+    public void printTimings() {
+        for (Map.Entry<String, Long> entry : getTimings().entrySet()) {
+            System.out.printf("Loaded %-20s in %d ms%n", entry.getKey(), entry.getValue());
+        }
+        if (snapshotWriteMillis >= 0) {
+            System.out.printf("Wrote  %-20s in %d ms%n", SNAPSHOT_FILE, snapshotWriteMillis);
+        }
+        System.out.println("Data loaded in " + totalMillis + " ms");
+    }
+    /**
+     * Returns the time taken to load each file, in the order the files depend on each other.
+     *
+     * @return A read-only map of file name to load time in milliseconds.
+     */
+    public Map<String, Long> getTimings() {
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String file : FILES) {
+            Long millis = timings.get(file);
+            if (millis != null) {
+                ordered.put(file, millis);
+            }
+        }
+        return Collections.unmodifiableMap(ordered);
+    }
+    /**
+     * Returns the loaded applicants.
+     *
+     * @return The list of applicants.
+     */
+    public List<Applicant> getApplicants() {
+        return applicants;
+    }
+    /**
+     * Returns the loaded HDB officers.
+     *
+     * @return The list of officers.
+     */
+    public List<HDBOfficer> getOfficers() {
+        return officers;
+    }
+    /**
+     * Returns the loaded HDB managers.
+     *
+     * @return The list of managers.
+     */
+    public List<HDBManager> getManagers() {
+        return managers;
+    }
+    /**
+     * Returns the loaded projects, linked to their managers, officers, applications and enquiries.
+     *
+     * @return The list of projects.
+     */
+    public List<Project> getProjects() {
+        return projects;
+    }
+    /**
+     * Returns all loaded users: applicants, then officers, then managers.
+     *
+     * @return The list of all users.
+     */
+    public List<User> getAllUsers() {
+        return allUsers;
+    }
+    /**
+     * Returns the index built over all loaded users and projects.
+     *
+     * @return The entity index.
+     */
+    public EntityIndex getIndex() {
+        return index;
+    }
+    /**
+     * Runs a loading task on the executor and records how long it took.
+     *
+     * @param <T> The type of the task result.
+     * @param file The file name the task loads, used as the timing key.
+     * @param task The loading task.
+     * @param executor The executor to run the task on.
+     * @return A future completing with the task result.
+     */
+    private <T> CompletableFuture<T> timed(String file, Supplier<T> task, ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return task.get();
+            } finally {
+                timings.put(file, (System.nanoTime() - start) / 1_000_000);
+            }
+        }, executor);
+    }
+    /**
+     * Resolves a data file name against the data directory.
+     *
+     * @param file The file name.
+     * @return The full path to the file.
+     */
+    private String path(String file) {
+        return dataDirectory + file;
+    }
+}
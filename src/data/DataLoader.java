@@ -8,16 +8,34 @@ import model.user.User;
 import model.user.HDBOfficer;
 import model.user.MaritalStatus;
 import model.transaction.Application;
+import model.transaction.ApplicationStatus;
 import model.transaction.Enquiry;
+import service.ValidationService;
 
-import java.io.*;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 /**
  * This class provides methods to load data from CSV files and populate the corresponding objects
  * for applicants, projects, officers, managers, applications, and enquiries in the system.
  */
 public class DataLoader {
+    /** Files below this size are not worth splitting for parallel parsing. */
+    private static final long PARALLEL_THRESHOLD_BYTES = 1L << 20;
+    /** Upper bound on a single mapped chunk, well below the 2 GB mapping limit. */
+    private static final long MAX_CHUNK_BYTES = 1L << 28;
     /**
      * Default constructor for DataLoader.
      */
@@ -32,16 +50,14 @@ public class DataLoader {
      */
     public List<Applicant> loadApplicants(String filePath) {
         List<Applicant> applicants = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip the header
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                String name = data[0];
-                String nric = data[1];
-                int age = Integer.parseInt(data[2]);
-                MaritalStatus maritalStatus = MaritalStatus.valueOf(data[3].toUpperCase());
-                String password = data[4];
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader();
+            while (csv.nextRow()) {
+                String name = csv.getString(0);
+                String nric = csv.getString(1);
+                int age = csv.getInt(2);
+                MaritalStatus maritalStatus = csv.getEnum(3, MaritalStatus.class);
+                String password = csv.getString(4);
 
                 // Create and add the applicant
                 applicants.add(new Applicant(name, nric, password, age, maritalStatus));
@@ -49,6 +65,7 @@ public class DataLoader {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        warnInvalidNrics(filePath, applicants);
         return applicants;
     }
     /**
@@ -61,114 +78,128 @@ public class DataLoader {
      * @throws IOException If an I/O error occurs during file reading.
      */
     public static List<Project> loadProjects(String filePath, List<HDBOfficer> allOfficers, List<HDBManager> allManagers) throws IOException {
+        EntityIndex index = new EntityIndex();
+        index.addUsers(allOfficers);
+        index.addUsers(allManagers);
+        return loadProjects(filePath, index);
+    }
+    /**
+     * Loads projects from a CSV file, resolving managers and officers through a prebuilt index.
+     * The loaded projects are added to the index so that applications and enquiries can be linked to them.
+     *
+     * @param filePath The path to the CSV file.
+     * @param index The index holding all HDB Officers and HDB Managers in the system.
+     * @return A list of Projects loaded from the CSV file.
+     * @throws IOException If an I/O error occurs during file reading.
+     */
+    public static List<Project> loadProjects(String filePath, EntityIndex index) throws IOException {
         List<Project> projects = new ArrayList<>();
-    
-        BufferedReader reader = new BufferedReader(new FileReader(filePath));
-        String line;
-        reader.readLine();  // Skip the header line
         int projectid = 1; // Initialize project ID
 
-        // Read each line of the CSV file
-        while ((line = reader.readLine()) != null) {
-            // Initialize variables
-            List<String> columns = new ArrayList<>();
-            StringBuilder currentField = new StringBuilder();
-            boolean insideQuotes = false;
-            char[] charArray = line.toCharArray();
-    
-            // Iterate over each character in the line
-            for (int i = 0; i < charArray.length; i++) {
-                char c = charArray[i];
-    
-                if (c == '"' && (i == 0 || charArray[i - 1] != '\\')) {
-                    // Toggle the insideQuotes flag when encountering a quote
-                    insideQuotes = !insideQuotes;
-                } else if (c == ',' && !insideQuotes) {
-                    // If outside quotes and a comma, it's a delimiter for a new field
-                    columns.add(currentField.toString().trim());
-                    currentField.setLength(0);  // Clear the current field
-                } else {
-                    // Append the character to the current field
-                    currentField.append(c);
-                }
-            }
-    
-            // Add the last field (after the last comma)
-            columns.add(currentField.toString().trim());
-    
-            // Now parse the fields
-            String projectName = columns.get(0);
-            String neighborhood = columns.get(1);
-            String type1 = columns.get(2);
-            int numUnitsType1 = Integer.parseInt(columns.get(3));
-            double sellingPriceType1 = Double.parseDouble(columns.get(4));
-            String type2 = columns.get(5);
-            int numUnitsType2 = Integer.parseInt(columns.get(6));
-            double sellingPriceType2 = Double.parseDouble(columns.get(7));
-            LocalDate openingDate = Project.parseDate(columns.get(8));
-            LocalDate closingDate = Project.parseDate(columns.get(9));
-            String managerName = columns.get(10);
-            int maxOfficerSlots = Integer.parseInt(columns.get(11));
-            
-            List<String> officerNames = new ArrayList<>();
-            if (columns.size() > 12 && !columns.get(12).trim().isEmpty()) {
-                String officerString = columns.get(12);
-                String[] officers = officerString.split(",");
-                for (String officer : officers) {
-                    officerNames.add(officer.trim());
-                }
-            }
-            // Find HDBOfficer objects based on officer names
-            List<HDBOfficer> officerObjects = new ArrayList<>();
-            for (String officerName : officerNames) {
-                for (HDBOfficer officer : allOfficers) {
-                    if (officer.getName().equalsIgnoreCase(officerName.trim())) {
-                        officerObjects.add(officer);
-                        break;
-                    }
-                }
-            }
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader();  // Skip the header line
 
-            HDBManager matchedManager = null;
+            // Read each row of the CSV file
+            while (csv.nextRow()) {
+                projects.add(parseProject(csv, projectid++, index));
+            }
+        }
+        index.addProjects(projects);
+        return projects;
+    }
+    /**
+     * Builds a single project from the current row of the projects CSV and links its manager and officers.
+     *
+     * @param csv The reader positioned on a project row.
+     * @param projectid The ID to assign to the project.
+     * @param index The index used to resolve manager and officer names.
+     * @return The parsed project.
+     */
+    private static Project parseProject(CsvReader csv, int projectid, EntityIndex index) {
+        String projectName = csv.getString(0);
+        String neighborhood = csv.getString(1);
+        String type1 = csv.getString(2);
+        int numUnitsType1 = csv.getInt(3);
+        double sellingPriceType1 = csv.getDouble(4);
+        String type2 = csv.getString(5);
+        int numUnitsType2 = csv.getInt(6);
+        double sellingPriceType2 = csv.getDouble(7);
+        LocalDate openingDate = csv.getDate(8);
+        LocalDate closingDate = csv.getDate(9);
+        String managerName = csv.getString(10);
+        int maxOfficerSlots = csv.getInt(11);
+        String officerField = csv.getString(12);
 
-            for (HDBManager m : allManagers) {
-                if (m.getName().equalsIgnoreCase(managerName.trim())) {
-                    matchedManager = m;
-                    break;
+        return buildProject(projectid, projectName, neighborhood, parseFlatType(type1), numUnitsType1, sellingPriceType1,
+                parseFlatType(type2), numUnitsType2, sellingPriceType2, openingDate, closingDate,
+                managerName, maxOfficerSlots, officerField, index);
+    }
+    /**
+     * Builds a single project from the values of a project record and links its manager and officers.
+     * This is shared by the CSV loader and {@link SnapshotReader}.
+     *
+     * @param projectid The ID to assign to the project.
+     * @param projectName The project name.
+     * @param neighborhood The neighbourhood of the project.
+     * @param flatType1 The first flat type, or null if the project has none.
+     * @param numUnitsType1 The number of units of the first flat type.
+     * @param sellingPriceType1 The selling price of the first flat type.
+     * @param flatType2 The second flat type, or null if the project has none.
+     * @param numUnitsType2 The number of units of the second flat type.
+     * @param sellingPriceType2 The selling price of the second flat type.
+     * @param openingDate The application opening date.
+     * @param closingDate The application closing date.
+     * @param managerName The name of the managing HDB Manager.
+     * @param maxOfficerSlots The maximum number of officers.
+     * @param officerField The comma-separated names of the assigned officers, possibly empty.
+     * @param index The index used to resolve manager and officer names.
+     * @return The built project.
+     */
+    static Project buildProject(int projectid, String projectName, String neighborhood,
+                                FlatType flatType1, int numUnitsType1, double sellingPriceType1,
+                                FlatType flatType2, int numUnitsType2, double sellingPriceType2,
+                                LocalDate openingDate, LocalDate closingDate, String managerName,
+                                int maxOfficerSlots, String officerField, EntityIndex index) {
+        // Find HDBOfficer objects based on officer names
+        List<HDBOfficer> officerObjects = new ArrayList<>();
+        if (!officerField.isEmpty()) {
+            for (String officerName : officerField.split(",")) {
+                HDBOfficer officer = index.findOfficer(officerName);
+                if (officer != null) {
+                    officerObjects.add(officer);
                 }
             }
-            // Create project and add officers
-            Project project = new Project(projectName, neighborhood, openingDate, closingDate, maxOfficerSlots);
-            
-            project.setProjectID(projectid++);
-            
-            if (matchedManager != null) {
-                project.setManager(matchedManager);
-                matchedManager.addManagedProject(project);
-            } else {
-                System.out.println("Warning: No matching HDBManager found for project '" + projectName + "' with manager name '" + managerName + "'.");
-            }
-            // Add the officer objects to the project
-            for (HDBOfficer officer : officerObjects) {
-                project.addOfficer(officer);
-                officer.assignProject(project);
-            }
+        }
+
+        HDBManager matchedManager = index.findManager(managerName);
+        // Create project and add officers
+        Project project = new Project(projectName, neighborhood, openingDate, closingDate, maxOfficerSlots);
+        
+        project.setProjectID(projectid);
+        
+        if (matchedManager != null) {
+            project.setManager(matchedManager);
+            matchedManager.addManagedProject(project);
+        } else {
+            System.out.println("Warning: No matching HDBManager found for project '" + projectName + "' with manager name '" + managerName + "'.");
+        }
+        // Add the officer objects to the project
+        for (HDBOfficer officer : officerObjects) {
+            project.addOfficer(officer);
+            officer.assignProject(project);
+            OfficerAssignmentIndex.assign(officer, project);
+        }
 
-            
-            // Add flat units
-            FlatType flatType1 = parseFlatType(type1);
-            FlatType flatType2 = parseFlatType(type2);
+        // Add flat units and prices
+        if (flatType1 != null) {
             project.addFlatUnit(flatType1, numUnitsType1);
-            project.addFlatUnit(flatType2, numUnitsType2);
-            // Add flat prices
             project.addFlatPrice(flatType1, sellingPriceType1);
+        }
+        if (flatType2 != null) {
+            project.addFlatUnit(flatType2, numUnitsType2);
             project.addFlatPrice(flatType2, sellingPriceType2);
-    
-            projects.add(project);
         }
-    
-        reader.close();
-        return projects;
+        return project;
     }
     /**
      * Loads HDB officers from a CSV file.
@@ -178,16 +209,14 @@ public class DataLoader {
      */
     public List<HDBOfficer> loadOfficers(String filePath) {
         List<HDBOfficer> officers = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                String name = data[0];
-                String nric = data[1];
-                int age = Integer.parseInt(data[2]);
-                MaritalStatus maritalStatus = MaritalStatus.valueOf(data[3].toUpperCase());
-                String password = data[4];
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader(); // Skip header
+            while (csv.nextRow()) {
+                String name = csv.getString(0);
+                String nric = csv.getString(1);
+                int age = csv.getInt(2);
+                MaritalStatus maritalStatus = csv.getEnum(3, MaritalStatus.class);
+                String password = csv.getString(4);
     
                 officers.add(new HDBOfficer(name, nric, password, age, maritalStatus));
             }
@@ -195,6 +224,7 @@ public class DataLoader {
         } catch (IOException e) {
             System.out.println("Error loading officers: " + e.getMessage());
         }
+        warnInvalidNrics(filePath, officers);
         return officers;
     }
     /**
@@ -222,16 +252,14 @@ public class DataLoader {
      */
     public List<HDBManager> loadHDBManagers(String filePath) {
         List<HDBManager> managers = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                String name = data[0];
-                String nric = data[1];
-                int age = Integer.parseInt(data[2]);
-                MaritalStatus maritalStatus = MaritalStatus.valueOf(data[3].toUpperCase());
-                String password = data[4];
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader(); // Skip header
+            while (csv.nextRow()) {
+                String name = csv.getString(0);
+                String nric = csv.getString(1);
+                int age = csv.getInt(2);
+                MaritalStatus maritalStatus = csv.getEnum(3, MaritalStatus.class);
+                String password = csv.getString(4);
 
                 // Create and add the manager
                 managers.add(new HDBManager(name, nric, password, age, maritalStatus));
@@ -240,8 +268,23 @@ public class DataLoader {
         } catch (IOException e) {
             System.out.println("Error loading HDB Managers: " + e.getMessage());
         }
+        warnInvalidNrics(filePath, managers);
         return managers;
     }
+    /**
+     * Reports users whose NRIC is not in a valid format. They are still loaded, but cannot log in.
+     *
+     * @param filePath The path of the file the users were loaded from.
+     * @param users The loaded users, in file order.
+     */
+    private static void warnInvalidNrics(String filePath, List<? extends User> users) {
+        BitSet invalid = ValidationService.findInvalidNrics(users.stream().map(User::getNric).toList(), false);
+        if (!invalid.isEmpty()) {
+            // Rows are numbered from 1 and the header comes first
+            System.out.println("Warning: " + invalid.cardinality() + " NRICs in " + filePath
+                    + " are not in a valid format and cannot log in, the first in row " + (invalid.nextSetBit(0) + 2) + ".");
+        }
+    }
     /**
      * Loads applications from a CSV file and links them to the corresponding applicants and projects.
      *
@@ -250,51 +293,193 @@ public class DataLoader {
      * @param allProjects List of all projects.
      */
     public void loadApplications(String filePath, List<User> allUsers, List<Project> allProjects) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip the header line
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                String applicantNRIC = data[1];
-                String projectName = data[2];
-                String flatTypeStr = data[3].toUpperCase(); // Convert to uppercase for enum matching
-                String status = data[4];
-                boolean withdrawalRequested = Boolean.parseBoolean(data[5]);
-                LocalDate applicationDate = LocalDate.parse(data[6]);
+        loadApplications(filePath, new EntityIndex(allUsers, allProjects));
+    }
+    /**
+     * Loads applications from a CSV file, resolving applicants and projects through a prebuilt index.
+     *
+     * @param filePath The path to the CSV file.
+     * @param index The index holding all users and projects in the system.
+     */
+    public void loadApplications(String filePath, EntityIndex index) {
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader(); // Skip the header line
+            while (csv.nextRow()) {
+                linkApplication(parseApplication(csv, index));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Loads a large applications CSV by parsing byte-range chunks of the file in parallel.
+     * The file is memory-mapped chunk by chunk, each chunk ending on a line boundary, and the chunks are parsed
+     * on a ForkJoinPool. The parsed applications are then linked to their applicants and projects in file order,
+     * so the result is identical to {@link #loadApplications(String, EntityIndex)}.
+     * Files smaller than 1 MB are loaded sequentially.
+     * Chunk splitting assumes that no record contains a quoted line break, which holds for the application format.
+     *
+     * @param filePath The path to the CSV file.
+     * @param index The index holding all users and projects in the system.
+     * @param parallelism The number of worker threads to parse chunks with.
+     */
+    public void loadApplicationsInChunks(String filePath, EntityIndex index, int parallelism) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < PARALLEL_THRESHOLD_BYTES || parallelism < 2) {
+                loadApplications(filePath, index);
+                return;
+            }
+            List<long[]> chunks = splitIntoChunks(channel, parallelism * 4);
 
-                // Find the applicant based on NRIC
-                Applicant applicant = null;
-                for (User user : allUsers) {
-                    if (user instanceof Applicant  && user.getNric().equals(applicantNRIC)) {
-                        applicant = (Applicant) user;
-                        break;
-                    }
-                }
+            List<Callable<List<Application>>> tasks = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                tasks.add(() -> parseApplicationChunk(channel, chunk[0], chunk[1], index));
+            }
 
-                // Find the project based on project name
-                Project project = null;
-                for (Project p : allProjects) {
-                    if (p.getProjectName().equals(projectName)) {
-                        project = p;
-                        break;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                // invokeAll returns futures in task order, which keeps the merge deterministic
+                for (Future<List<Application>> future : pool.invokeAll(tasks)) {
+                    for (Application application : future.get()) {
+                        linkApplication(application);
                     }
                 }
-
-                // Ensure applicant and project exist before creating the application
-                if (applicant != null && project != null) {
-                    FlatType flatType = FlatType.valueOf(flatTypeStr); // Convert the string to the FlatType enum
-                    Application application = new Application(applicant, project, flatType);
-                    application.setStatus(status); // Set the status
-                    application.setWithdrawalRequested(withdrawalRequested); // Set withdrawal request
-                    application.setApplicationDate(applicationDate); // Set the application date
-                    applicant.setApplication(application);
-                    project.addApplication(application); // Link application to the applicant
-                } else {
-                    System.out.println("Error: Application entry could not be linked to applicant or project.");
-                }
+            } finally {
+                pool.shutdown();
             }
         } catch (IOException e) {
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to parse " + filePath, e.getCause());
+        }
+    }
+    /**
+     * Splits the data rows of a CSV file into byte ranges that each start at the beginning of a line.
+     * The header line is excluded from the first range.
+     *
+     * @param channel The channel of the file to split.
+     * @param targetChunks The desired number of chunks.
+     * @return A list of {start, end} byte offsets in file order.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private static List<long[]> splitIntoChunks(FileChannel channel, int targetChunks) throws IOException {
+        long size = channel.size();
+        long start = nextLineStart(channel, 0); // Skip the header line
+        long chunkSize = Math.min(MAX_CHUNK_BYTES, Math.max(1, (size - start) / targetChunks));
+
+        List<long[]> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+    /**
+     * Finds the offset just after the first line feed at or after the given position.
+     *
+     * @param channel The channel to scan.
+     * @param position The position to start scanning from.
+     * @return The offset of the next line start, or the file size if there is no further line feed.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        long size = channel.size();
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+    /**
+     * Parses one byte range of an applications CSV without linking the results.
+     *
+     * @param channel The channel of the applications file.
+     * @param start The offset of the first byte of the chunk, at the start of a line.
+     * @param end The offset just past the last byte of the chunk, at the start of a line or the end of the file.
+     * @param index The index used to resolve applicants and projects.
+     * @return The parsed applications in file order, with null entries for rows that could not be resolved.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private static List<Application> parseApplicationChunk(FileChannel channel, long start, long end, EntityIndex index) throws IOException {
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+        List<Application> applications = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()))) {
+            while (csv.nextRow()) {
+                applications.add(parseApplication(csv, index));
+            }
+        }
+        return applications;
+    }
+    /**
+     * Builds an application from the current row of the applications CSV without linking it.
+     *
+     * @param csv The reader positioned on an application row.
+     * @param index The index used to resolve applicants and projects.
+     * @return The parsed application, or null if its applicant or project does not exist.
+     */
+    private static Application parseApplication(CsvReader csv, EntityIndex index) {
+        String applicantNRIC = csv.getString(1);
+        String projectName = csv.getString(2);
+        FlatType flatType = csv.getEnum(3, FlatType.class);
+        ApplicationStatus status = csv.getEnum(4, ApplicationStatus.class);
+        boolean withdrawalRequested = csv.getBoolean(5);
+        LocalDate applicationDate = csv.getDate(6);
+
+        // Find the applicant based on NRIC and the project based on project name
+        Applicant applicant = index.findApplicant(applicantNRIC);
+        Project project = index.findProject(projectName);
+
+        // Ensure applicant and project exist before creating the application
+        if (applicant == null || project == null) {
+            return null;
+        }
+        return buildApplication(applicant, project, flatType, status, withdrawalRequested, applicationDate);
+    }
+    /**
+     * Builds an application from the values of an application record without linking it.
+     *
+     * @param applicant The applicant who submitted the application.
+     * @param project The project applied for.
+     * @param flatType The flat type applied for.
+     * @param status The application status.
+     * @param withdrawalRequested Whether a withdrawal has been requested.
+     * @param applicationDate The date of the application.
+     * @return The built application.
+     */
+    static Application buildApplication(Applicant applicant, Project project, FlatType flatType, ApplicationStatus status,
+                                        boolean withdrawalRequested, LocalDate applicationDate) {
+        Application application = new Application(applicant, project, flatType);
+        application.setStatus(status); // Set the status
+        application.setWithdrawalRequested(withdrawalRequested); // Set withdrawal request
+        application.setApplicationDate(applicationDate); // Set the application date
+        return application;
+    }
+    /**
+     * Links a parsed application to its applicant and project, or reports a row that could not be resolved.
+     *
+     * @param application The parsed application, or null if the row could not be resolved.
+     */
+    static void linkApplication(Application application) {
+        if (application != null) {
+            application.getApplicant().setApplication(application);
+            application.getProject().addApplication(application); // Link application to the applicant
+        } else {
+            System.out.println("Error: Application entry could not be linked to applicant or project.");
         }
     }
     /**
@@ -305,47 +490,55 @@ public class DataLoader {
      * @param allProjects List of all projects.
      */
     public void loadEnquiries(String filePath, List<User> allUsers, List<Project> allProjects) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip CSV header
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",", -1); // -1 to keep empty strings
-                int enquiryID = Integer.parseInt(data[0]);
-                String applicantName = data[1]; // optional
-                String applicantNRIC = data[2];
-                String projectName = data[3];
-                String message = data[4];
-                String reply = data.length > 5 ? data[5] : "";
-    
-                // Find project by name
-                Project matchedProject = allProjects.stream()
-                    .filter(p -> p.getProjectName().equalsIgnoreCase(projectName))
-                    .findFirst()
-                    .orElse(null);
-    
-                // Find applicant from user list
-                Applicant matchedApplicant = allUsers.stream()
-                    .filter(u -> u instanceof Applicant)
-                    .map(u -> (Applicant) u)
-                    .filter(a -> a.getNric().equalsIgnoreCase(applicantNRIC))
-                    .findFirst()
-                    .orElse(null);
-    
-                if (matchedProject != null && matchedApplicant != null) {
-                    Enquiry enquiry = new Enquiry(enquiryID, message, matchedProject, matchedApplicant);
+        loadEnquiries(filePath, new EntityIndex(allUsers, allProjects));
+    }
+    /**
+     * Loads enquiries from a CSV file, resolving applicants and projects through a prebuilt index.
+     *
+     * @param filePath The path to the CSV file.
+     * @param index The index holding all users and projects in the system.
+     */
+    public void loadEnquiries(String filePath, EntityIndex index) {
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            csv.skipHeader(); // Skip CSV header
+            while (csv.nextRow()) {
+                int enquiryID = csv.getInt(0);
+                String applicantNRIC = csv.getString(2);
+                String projectName = csv.getString(3);
+                String message = csv.getString(4);
+                String reply = csv.getString(5); // empty when the field is missing
     
-                    if (!reply.isEmpty()) {
-                        enquiry.setReply(reply);
-                    }
+                // Find project by name and applicant by NRIC
+                Project matchedProject = index.findProject(projectName);
+                Applicant matchedApplicant = index.findApplicant(applicantNRIC);
     
-                    matchedProject.addEnquiry(enquiry);
-                    matchedApplicant.addEnquiry(enquiry); // optional if applicants store their own enquiries
-                } else {
-                    System.out.println("Warning: Could not resolve project or applicant for EnquiryID: " + enquiryID);
-                }
+                linkEnquiry(enquiryID, matchedApplicant, matchedProject, message, reply);
             }
         } catch (IOException e) {
             System.out.println("Error loading enquiries: " + e.getMessage());
         }
+    }
+    /**
+     * Builds an enquiry and links it to its project and applicant, or reports an enquiry that could not be resolved.
+     *
+     * @param enquiryID The enquiry ID.
+     * @param applicant The applicant who submitted the enquiry, or null if not found.
+     * @param project The project the enquiry is about, or null if not found.
+     * @param message The enquiry message.
+     * @param reply The reply, or an empty string if there is none.
+     */
+    static void linkEnquiry(int enquiryID, Applicant applicant, Project project, String message, String reply) {
+        if (project != null && applicant != null) {
+            Enquiry enquiry = new Enquiry(enquiryID, message, project, applicant);
+
+            if (!reply.isEmpty()) {
+                enquiry.setReply(reply);
+            }
+
+            project.addEnquiry(enquiry);
+            applicant.addEnquiry(enquiry); // optional if applicants store their own enquiries
+        } else {
+            System.out.println("Warning: Could not resolve project or applicant for EnquiryID: " + enquiryID);
+        }
     }    
 }
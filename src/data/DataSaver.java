@@ -3,23 +3,55 @@ package data;
 import model.project.Project;
 import model.transaction.Enquiry;
 import model.transaction.Application;
+import model.transaction.ApplicationStatus;
 import model.project.FlatType;
 import model.user.Applicant;
 import model.user.HDBOfficer;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import java.io.File;
 /**
  * The DataSaver class provides static methods for saving project, application, and enquiry data to CSV files.
  * It ensures that data is saved in the correct format and that the necessary directories are created if they do not exist.
+ * Every file is written to a temporary file in the same directory, synced to disk and then atomically renamed over
+ * the old file, so an interrupted save leaves either the old or the new file, never a truncated one.
  */
 public class DataSaver {
+    /** Header row of the projects CSV file. */
+    static final String PROJECT_HEADER = "Project Name,Neighborhood,Type 1,Number of units for Type 1,Selling price for Type 1,Type 2,Number of units for Type 2,Selling price for Type 2,Application opening date,Application closing date,Manager,Officer Slot,Officer";
+    /** Header row of the applications CSV file. */
+    static final String APPLICATION_HEADER = "Applicant,NRIC,Project,FlatType,Status,WithdrawalRequested,ApplicationDate";
+    /** Header row of the enquiries CSV file. */
+    static final String ENQUIRY_HEADER = "EnquiryID,Applicant,NRIC,Project,Message,Reply";
+    /** Single daemon thread running background saves one after another, so they never interleave. */
+    private static final ExecutorService backgroundSaver = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "data-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Constructs a DataSaver instance.
      * This constructor can be used for initialization if needed.
@@ -34,16 +66,29 @@ public class DataSaver {
      * @param projects The list of projects to be saved.
      */
     public static void saveProjects(String filePath, List<Project> projects) {
-        ensureDirectoryExists(filePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writeProjectsHeader(writer);
-            for (Project project : projects) {
-                writer.write(formatProjectData(project));
-            }
+        try {
+            writeProjects(filePath, projects);
         } catch (IOException e) {
             System.out.println("Error saving projects: " + e.getMessage());
         }
     }
+    /**
+     * Writes a list of projects to a CSV file, reporting failure to the caller.
+     * 
+     * @param filePath The path to the CSV file where the projects will be saved.
+     * @param projects The list of projects to be saved.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeProjects(String filePath, List<Project> projects) throws IOException {
+        writeAtomically(filePath, writer -> {
+            writeProjectsHeader(writer);
+            CsvRowEncoder row = new CsvRowEncoder();
+            for (Project project : projects) {
+                encodeProject(row, project);
+                row.writeRowTo(writer);
+            }
+        });
+    }
     /**
      * Writes the header row for the projects CSV file.
      * 
@@ -51,7 +96,7 @@ public class DataSaver {
      * @throws IOException If an I/O error occurs while writing the header.
      */
     private static void writeProjectsHeader(BufferedWriter writer) throws IOException {
-        writer.write("Project Name,Neighborhood,Type 1,Number of units for Type 1,Selling price for Type 1,Type 2,Number of units for Type 2,Selling price for Type 2,Application opening date,Application closing date,Manager,Officer Slot,Officer\n");
+        writer.write(PROJECT_HEADER + "\n");
     }
     /**
      * Formats the data for a single project into a CSV-compatible string.
@@ -59,43 +104,71 @@ public class DataSaver {
      * @param project The project to format.
      * @return A CSV-formatted string representing the project.
      */
-    private static String formatProjectData(Project project) {
+    static String formatProjectData(Project project) {
+        CsvRowEncoder row = new CsvRowEncoder();
+        encodeProject(row, project);
+        return row.toRow();
+    }
+    /**
+     * Adds the fields of a single project to a row.
+     * 
+     * @param row The encoder building the row.
+     * @param project The project to encode.
+     */
+    private static void encodeProject(CsvRowEncoder row, Project project) {
         Map<FlatType, Integer> flatUnits = project.getFlatUnits();
         Map<FlatType, Double> flatPrices = project.getFlatPrices();
 
-        FlatType[] types = flatUnits.keySet().toArray(new FlatType[0]);
-        String type1 = types.length > 0 ? getFlatTypeName(types[0]) : "";
-        String type2 = types.length > 1 ? getFlatTypeName(types[1]) : "";
+        FlatType type1 = null;
+        FlatType type2 = null;
+        for (FlatType type : flatUnits.keySet()) {
+            if (type1 == null) {
+                type1 = type;
+            } else if (type2 == null) {
+                type2 = type;
+            }
+        }
 
-        int units1 = types.length > 0 ? flatUnits.getOrDefault(types[0], 0) : 0;
-        int units2 = types.length > 1 ? flatUnits.getOrDefault(types[1], 0) : 0;
+        int units1 = type1 != null ? flatUnits.getOrDefault(type1, 0) : 0;
+        int units2 = type2 != null ? flatUnits.getOrDefault(type2, 0) : 0;
 
-        double price1 = types.length > 0 ? flatPrices.getOrDefault(types[0], 0.0) : 0.0;
-        double price2 = types.length > 1 ? flatPrices.getOrDefault(types[1], 0.0) : 0.0;
+        double price1 = type1 != null ? flatPrices.getOrDefault(type1, 0.0) : 0.0;
+        double price2 = type2 != null ? flatPrices.getOrDefault(type2, 0.0) : 0.0;
 
         String managerName = project.getManager() != null ? project.getManager().getName() : "";
-        int maxOfficerSlots = project.getMaxOfficerSlots();
 
         StringJoiner officerNames = new StringJoiner(",");
         for (HDBOfficer officer : project.getOfficers()) {
             officerNames.add(officer.getName());
         }
 
-        return String.format("%s,%s,%s,%d,%.2f,%s,%d,%.2f,%s,%s,%s,%d,%s%n",
-                project.getProjectName(),
-                project.getNeighbourhood(),
-                type1,
-                units1,
-                price1,
-                type2,
-                units2,
-                price2,
-                project.getApplicationStartDate(),
-                project.getApplicationEndDate(),
-                managerName,
-                maxOfficerSlots,
-                "\"" + officerNames.toString() + "\""
-        );
+        row.add(project.getProjectName())
+                .add(project.getNeighbourhood())
+                .add(getFlatTypeName(type1))
+                .add(units1)
+                .addPrice(price1)
+                .add(getFlatTypeName(type2))
+                .add(units2)
+                .addPrice(price2)
+                .add(project.getApplicationStartDate())
+                .add(project.getApplicationEndDate())
+                .add(managerName)
+                .add(project.getMaxOfficerSlots())
+                .add(officerNames.toString());
+    }
+    /**
+     * Saves a binary snapshot of the given projects and their applications and enquiries.
+     * It must be written after the CSV files, since it is only loaded while it is newer than them.
+     * 
+     * @param filePath The path to the snapshot file.
+     * @param projects The list of all projects to be saved.
+     */
+    public static void saveSnapshot(String filePath, List<Project> projects) {
+        try {
+            SnapshotWriter.write(filePath, projects);
+        } catch (IOException e) {
+            System.out.println("Error saving snapshot: " + e.getMessage());
+        }
     }
     /**
      * Saves a list of applications to a CSV file.
@@ -104,25 +177,29 @@ public class DataSaver {
      * @param applications The list of applications to be saved.
      */
     public static void saveApplications(String filePath, List<Application> applications) {
-        ensureDirectoryExists(filePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("Applicant,NRIC,Project,FlatType,Status,WithdrawalRequested,ApplicationDate\n");
-            for (Application app : applications) {
-                Applicant applicant = app.getApplicant();
-                writer.write(String.format("%s,%s,%s,%s,%s,%b,%s%n",
-                        applicant.getName(),
-                        applicant.getNric(),
-                        app.getProject().getProjectName(),
-                        app.getFlatType(),
-                        app.getStatus(),
-                        app.isWithdrawalRequested(),
-                        app.getApplicationDate()
-                ));
-            }
+        try {
+            writeApplications(filePath, applications);
         } catch (IOException e) {
             System.out.println("Error saving applications: " + e.getMessage());
         }
     }
+    /**
+     * Writes a list of applications to a CSV file, reporting failure to the caller.
+     * 
+     * @param filePath The path to the CSV file where the applications will be saved.
+     * @param applications The list of applications to be saved.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeApplications(String filePath, List<Application> applications) throws IOException {
+        writeAtomically(filePath, writer -> {
+            writer.write(APPLICATION_HEADER + "\n");
+            CsvRowEncoder row = new CsvRowEncoder();
+            for (Application app : applications) {
+                encodeApplication(row, app);
+                row.writeRowTo(writer);
+            }
+        });
+    }
     /**
      * Saves a list of enquiries to a CSV file.
      * 
@@ -130,47 +207,325 @@ public class DataSaver {
      * @param enquiries The list of enquiries to be saved.
      */
     public static void saveEnquiries(String filePath, List<Enquiry> enquiries) {
-        ensureDirectoryExists(filePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("EnquiryID,Applicant,NRIC,Project,Message,Reply\n");
-            for (Enquiry enquiry : enquiries) {
-                Applicant applicant = enquiry.getApplicant();
-                writer.write(String.format("%d,%s,%s,%s,%s,%s%n",
-                        enquiry.getEnquiryId(),
-                        applicant.getName(),
-                        applicant.getNric(),
-                        enquiry.getProject().getProjectName(),
-                        enquiry.getEnquiryMessage().replaceAll("[\n\r]", " "),
-                        enquiry.getReplyMessage() == null ? "" : enquiry.getReplyMessage().replaceAll("[\n\r]", " ")
-                ));
-            }
+        try {
+            writeEnquiries(filePath, enquiries);
         } catch (IOException e) {
             System.out.println("Error saving enquiries: " + e.getMessage());
         }
     }
+    /**
+     * Writes a list of enquiries to a CSV file, reporting failure to the caller.
+     * 
+     * @param filePath The path to the CSV file where the enquiries will be saved.
+     * @param enquiries The list of enquiries to be saved.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeEnquiries(String filePath, List<Enquiry> enquiries) throws IOException {
+        writeAtomically(filePath, writer -> {
+            writer.write(ENQUIRY_HEADER + "\n");
+            CsvRowEncoder row = new CsvRowEncoder();
+            for (Enquiry enquiry : enquiries) {
+                encodeEnquiry(row, enquiry);
+                row.writeRowTo(writer);
+            }
+        });
+    }
+    /**
+     * Saves all projects, applications and enquiries to their CSV files on a background thread, so that a large
+     * save does not block the caller. The values to be saved are captured on the calling thread before this method
+     * returns, so later changes to the projects do not affect the save. Background saves run one at a time in the
+     * order they were requested. The saving thread is a daemon, so callers that exit afterwards must wait for the
+     * returned future.
+     * 
+     * @param dataDirectory The directory containing the CSV files, ending with a path separator.
+     * @param projects The list of all projects to be saved.
+     * @param onFileSaved Called on the saving thread with the path of each CSV file once it has been replaced.
+     * @return A future that completes when all three files have been written, or completes exceptionally
+     *         with an {@link UncheckedIOException} if one could not be written.
+     */
+    public static CompletableFuture<Void> saveAllInBackground(String dataDirectory, List<Project> projects,
+                                                              Consumer<String> onFileSaved) {
+        // Capture plain values now; formatting and writing happen on the saver thread
+        List<String> projectRows = new ArrayList<>(projects.size());
+        List<ApplicationRow> applicationRows = new ArrayList<>();
+        List<EnquiryRow> enquiryRows = new ArrayList<>();
+        for (Project project : projects) {
+            projectRows.add(formatProjectData(project));
+            for (Application app : project.getApplications()) {
+                applicationRows.add(ApplicationRow.of(app));
+            }
+            for (Enquiry enquiry : project.getEnquiries()) {
+                enquiryRows.add(EnquiryRow.of(enquiry));
+            }
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                String applicationFile = dataDirectory + DataBootstrap.APPLICATION_FILE;
+                writeAtomically(applicationFile, writer -> {
+                    writer.write(APPLICATION_HEADER + "\n");
+                    CsvRowEncoder row = new CsvRowEncoder();
+                    for (ApplicationRow values : applicationRows) {
+                        values.encode(row);
+                        row.writeRowTo(writer);
+                    }
+                });
+                onFileSaved.accept(applicationFile);
+                String enquiryFile = dataDirectory + DataBootstrap.ENQUIRY_FILE;
+                writeAtomically(enquiryFile, writer -> {
+                    writer.write(ENQUIRY_HEADER + "\n");
+                    CsvRowEncoder row = new CsvRowEncoder();
+                    for (EnquiryRow values : enquiryRows) {
+                        values.encode(row);
+                        row.writeRowTo(writer);
+                    }
+                });
+                onFileSaved.accept(enquiryFile);
+                String projectFile = dataDirectory + DataBootstrap.PROJECT_FILE;
+                writeAtomically(projectFile, writer -> {
+                    writeProjectsHeader(writer);
+                    for (String row : projectRows) {
+                        writer.write(row);
+                    }
+                });
+                onFileSaved.accept(projectFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, backgroundSaver);
+    }
+    /**
+     * Formats a single application into a CSV-compatible string.
+     * 
+     * @param app The application to format.
+     * @return A CSV-formatted string representing the application.
+     */
+    static String formatApplicationData(Application app) {
+        CsvRowEncoder row = new CsvRowEncoder();
+        encodeApplication(row, app);
+        return row.toRow();
+    }
+    /**
+     * Adds the fields of a single application to a row.
+     * 
+     * @param row The encoder building the row.
+     * @param app The application to encode.
+     */
+    private static void encodeApplication(CsvRowEncoder row, Application app) {
+        Applicant applicant = app.getApplicant();
+        row.add(applicant.getName())
+                .add(applicant.getNric())
+                .add(app.getProject().getProjectName())
+                .add(app.getFlatType())
+                .add(app.getStatus())
+                .add(app.isWithdrawalRequested())
+                .add(app.getApplicationDate());
+    }
+    /**
+     * Formats a single enquiry into a CSV-compatible string.
+     * 
+     * @param enquiry The enquiry to format.
+     * @return A CSV-formatted string representing the enquiry.
+     */
+    static String formatEnquiryData(Enquiry enquiry) {
+        CsvRowEncoder row = new CsvRowEncoder();
+        encodeEnquiry(row, enquiry);
+        return row.toRow();
+    }
+    /**
+     * Adds the fields of a single enquiry to a row. Messages and replies keep their line breaks; they are quoted
+     * so that the row can still be read back.
+     * 
+     * @param row The encoder building the row.
+     * @param enquiry The enquiry to encode.
+     */
+    private static void encodeEnquiry(CsvRowEncoder row, Enquiry enquiry) {
+        Applicant applicant = enquiry.getApplicant();
+        row.add(enquiry.getEnquiryId())
+                .add(applicant.getName())
+                .add(applicant.getNric())
+                .add(enquiry.getProject().getProjectName())
+                .add(enquiry.getEnquiryMessage())
+                .add(enquiry.getReplyMessage());
+    }
     /**
      * Converts a FlatType enum to its corresponding string representation.
      * 
-     * @param type The FlatType to convert.
-     * @return The string representation of the FlatType.
+     * @param type The FlatType to convert, or null.
+     * @return The string representation of the FlatType, or an empty string for null.
      */
     private static String getFlatTypeName(FlatType type) {
+        if (type == null) {
+            return "";
+        }
         switch (type) {
             case TWO_ROOM: return "2-Room";
             case THREE_ROOM: return "3-Room";
             default: return "";
         }
     }
+    /**
+     * Writes a file by writing its contents to a temporary file in the same directory, syncing it to disk,
+     * and atomically renaming it over the target. The temporary file is removed if anything fails.
+     * 
+     * @param filePath The path of the file to write.
+     * @param contents Writes the contents of the file.
+     * @throws IOException If the file cannot be written or renamed.
+     */
+    static void writeAtomically(String filePath, FileContents contents) throws IOException {
+        ensureDirectoryExists(filePath);
+        Path target = Path.of(filePath).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                contents.writeTo(writer);
+                writer.flush();
+                out.getFD().sync();
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    /**
+     * Renames a file over another in a single step, so readers see either the old or the new file.
+     * Falls back to a plain replacing move on file systems without atomic rename. The new file takes over the
+     * permissions of the file it replaces, and the directory is synced afterwards so that the rename itself
+     * survives a crash.
+     * 
+     * @param source The file to rename, already synced to disk.
+     * @param target The file to replace.
+     * @throws IOException If the file cannot be moved, or the directory cannot be synced.
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        copyPermissions(target, source);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+    /**
+     * Gives a file the permissions of another, if that file exists and the file system has POSIX permissions.
+     * Temporary files are created readable only by their owner, so without this every rewritten file would lose
+     * its original permissions.
+     * 
+     * @param from The file whose permissions are copied.
+     * @param to The file that receives them.
+     * @throws IOException If the permissions cannot be read or set.
+     */
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+        if (view == null || !Files.exists(from)) {
+            return;
+        }
+        Files.setPosixFilePermissions(to, view.readAttributes().permissions());
+    }
+    /**
+     * Syncs a directory to disk, so that files just renamed into it are still there after a crash.
+     * Platforms that cannot open a directory, such as Windows, make renames durable by themselves and are skipped.
+     * 
+     * @param directory The directory to sync.
+     * @throws IOException If the directory was opened but could not be synced.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
     /**
      * Ensures that the directory for the given file path exists, creating it if necessary.
      * 
      * @param filePath The file path for which the directory should be checked/created.
      */
-    private static void ensureDirectoryExists(String filePath) {
+    static void ensureDirectoryExists(String filePath) {
         File file = new File(filePath);
         File parent = file.getParentFile();
         if (parent != null && !parent.exists()) {
             parent.mkdirs(); // Create directory if it doesn't exist
         }
     }
+
+    /**
+     * Writes the contents of a file being saved.
+     */
+    @FunctionalInterface
+    interface FileContents {
+        /**
+         * Writes the file contents.
+         * 
+         * @param writer The writer of the temporary file.
+         * @throws IOException If writing fails.
+         */
+        void writeTo(BufferedWriter writer) throws IOException;
+    }
+    /**
+     * The values of one applications CSV row, captured so that they can be formatted later on another thread.
+     */
+    private record ApplicationRow(String applicantName, String nric, String projectName, FlatType flatType,
+                                  ApplicationStatus status, boolean withdrawalRequested, LocalDate applicationDate) {
+        /**
+         * Captures the values of an application.
+         * 
+         * @param app The application.
+         * @return The captured row.
+         */
+        static ApplicationRow of(Application app) {
+            Applicant applicant = app.getApplicant();
+            return new ApplicationRow(applicant.getName(), applicant.getNric(), app.getProject().getProjectName(),
+                    app.getFlatType(), app.getStatus(), app.isWithdrawalRequested(), app.getApplicationDate());
+        }
+        /**
+         * Adds the captured values to a row, in the same order as {@link #encodeApplication}.
+         * 
+         * @param row The encoder building the row.
+         */
+        void encode(CsvRowEncoder row) {
+            row.add(applicantName)
+                    .add(nric)
+                    .add(projectName)
+                    .add(flatType)
+                    .add(status)
+                    .add(withdrawalRequested)
+                    .add(applicationDate);
+        }
+    }
+    /**
+     * The values of one enquiries CSV row, captured so that they can be formatted later on another thread.
+     */
+    private record EnquiryRow(int enquiryId, String applicantName, String nric, String projectName,
+                              String message, String reply) {
+        /**
+         * Captures the values of an enquiry.
+         * 
+         * @param enquiry The enquiry.
+         * @return The captured row.
+         */
+        static EnquiryRow of(Enquiry enquiry) {
+            Applicant applicant = enquiry.getApplicant();
+            return new EnquiryRow(enquiry.getEnquiryId(), applicant.getName(), applicant.getNric(),
+                    enquiry.getProject().getProjectName(), enquiry.getEnquiryMessage(), enquiry.getReplyMessage());
+        }
+        /**
+         * Adds the captured values to a row, in the same order as {@link #encodeEnquiry}.
+         * 
+         * @param row The encoder building the row.
+         */
+        void encode(CsvRowEncoder row) {
+            row.add(enquiryId)
+                    .add(applicantName)
+                    .add(nric)
+                    .add(projectName)
+                    .add(message)
+                    .add(reply);
+        }
+    }
 }
@@ -0,0 +1,150 @@
+package data;
+
+import model.project.Project;
+import model.user.Applicant;
+import model.user.HDBManager;
+import model.user.HDBOfficer;
+import model.user.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+/**
+ * The EntityIndex class is a load-time identity index used by {@link DataLoader} to resolve references
+ * between CSV files in constant time. It maps NRICs to applicants, names to officers and managers,
+ * and project names to projects, all compared case-insensitively.
+ * When two entities share a key, the first one added wins, matching the behaviour of a linear scan.
+ */
+public class EntityIndex {
+    private final Map<String, User> usersByNric = new HashMap<>();
+    private final Map<String, Applicant> applicantsByNric = new HashMap<>();
+    private final Map<String, HDBOfficer> officersByName = new HashMap<>();
+    private final Map<String, HDBManager> managersByName = new HashMap<>();
+    private final Map<String, Project> projectsByName = new HashMap<>();
+
+    /**
+     * Constructs an empty EntityIndex.
+     */
+    public EntityIndex() {
+        // Entities are added through the add methods
+    }
+    /**
+     * Constructs an EntityIndex over the given users and projects.
+     *
+     * @param users All users in the system; applicants, officers and managers are indexed by role.
+     * @param projects All projects in the system.
+     */
+    public EntityIndex(Collection<? extends User> users, Collection<Project> projects) {
+        indexUsers(users);
+        indexProjects(projects);
+    }
+    /**
+     * Indexes each user under the keys relevant to its role. Officers are indexed both as applicants and as officers.
+     *
+     * @param users The users to index.
+     */
+    public void addUsers(Collection<? extends User> users) {
+        indexUsers(users);
+    }
+    /**
+     * Indexes each project by its name.
+     *
+     * @param projects The projects to index.
+     */
+    public void addProjects(Collection<Project> projects) {
+        indexProjects(projects);
+    }
+    /**
+     * Indexes users on behalf of the constructor and {@link #addUsers(Collection)}.
+     *
+     * @param users The users to index.
+     */
+    private void indexUsers(Collection<? extends User> users) {
+        for (User user : users) {
+            usersByNric.putIfAbsent(nricKey(user.getNric()), user);
+            if (user instanceof Applicant applicant) {
+                applicantsByNric.putIfAbsent(nricKey(applicant.getNric()), applicant);
+            }
+            if (user instanceof HDBOfficer officer) {
+                officersByName.putIfAbsent(nameKey(officer.getName()), officer);
+            }
+            if (user instanceof HDBManager manager) {
+                managersByName.putIfAbsent(nameKey(manager.getName()), manager);
+            }
+        }
+    }
+    /**
+     * Indexes projects on behalf of the constructor and {@link #addProjects(Collection)}.
+     *
+     * @param projects The projects to index.
+     */
+    private void indexProjects(Collection<Project> projects) {
+        for (Project project : projects) {
+            projectsByName.putIfAbsent(nameKey(project.getProjectName()), project);
+        }
+    }
+    /**
+     * Finds a user of any role by NRIC.
+     *
+     * @param nric The NRIC to look up, in any case.
+     * @return The matching user, or null if none exists.
+     */
+    public User findUser(String nric) {
+        return usersByNric.get(nricKey(nric));
+    }
+    /**
+     * Finds an applicant (including officers applying as applicants) by NRIC.
+     *
+     * @param nric The NRIC to look up, in any case.
+     * @return The matching applicant, or null if none exists.
+     */
+    public Applicant findApplicant(String nric) {
+        return applicantsByNric.get(nricKey(nric));
+    }
+    /**
+     * Finds an HDB officer by name.
+     *
+     * @param name The officer's name, in any case.
+     * @return The matching officer, or null if none exists.
+     */
+    public HDBOfficer findOfficer(String name) {
+        return officersByName.get(nameKey(name));
+    }
+    /**
+     * Finds an HDB manager by name.
+     *
+     * @param name The manager's name, in any case.
+     * @return The matching manager, or null if none exists.
+     */
+    public HDBManager findManager(String name) {
+        return managersByName.get(nameKey(name));
+    }
+    /**
+     * Finds a project by name.
+     *
+     * @param projectName The project name, in any case.
+     * @return The matching project, or null if none exists.
+     */
+    public Project findProject(String projectName) {
+        return projectsByName.get(nameKey(projectName));
+    }
+    /**
+     * Normalises an NRIC into its index key.
+     *
+     * @param nric The NRIC to normalise.
+     * @return The upper-cased, trimmed NRIC.
+     */
+    private static String nricKey(String nric) {
+        return nric.trim().toUpperCase(Locale.ROOT);
+    }
+    /**
+     * Normalises a person or project name into its index key.
+     *
+     * @param name The name to normalise.
+     * @return The lower-cased, trimmed name.
+     */
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,573 @@
+package data;
+
+import model.project.Project;
+import model.transaction.Application;
+import model.transaction.Enquiry;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+/**
+ * The IncrementalSaver class persists only the projects, applications and enquiries that changed since the last save.
+ * Changes are appended to a delta log next to each CSV file ({@code ProjectList.csv.delta} and so on) as upsert
+ * ({@code U}) and delete ({@code D}) records, each ending with a CRC32 checksum like the journal's, so that a
+ * record torn by a crash during an append is recognised and dropped instead of being folded into the CSV file. When a delta log grows past a fraction of the live record count,
+ * the CSV files are rewritten in full and the logs are discarded. Every successful save also rewrites the binary
+ * snapshot, so that it stays newer than the CSV files and their delta logs and the next startup can load it.
+ * When the data has to be loaded from the CSV files instead, pending delta logs are first folded back into them
+ * by {@link #applyPendingDeltas(String)}.
+ * <p>
+ * {@link #saveInBackground(List)} rewrites all CSV files on the background saver thread instead, for saving a
+ * large amount of data without blocking the menu. A later save waits for it to finish before writing anything.
+ */
+public class IncrementalSaver {
+    /** The suffix that turns the path of a CSV file into the path of its delta log. */
+    static final String DELTA_SUFFIX = ".delta";
+    /** Delta logs smaller than this are never compacted. */
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+    /** A delta log is compacted once it holds more records than this fraction of the live records. */
+    private static final double COMPACTION_RATIO = 0.5;
+
+    private final String dataDirectory;
+    // Key each saved record was last written under, used to detect deletions and renames
+    private final Map<Object, String> savedKeys = new IdentityHashMap<>();
+    private final DeltaLog projectLog;
+    private final DeltaLog applicationLog;
+    private final DeltaLog enquiryLog;
+    // The background save still running or not yet waited for, or null if there is none
+    private CompletableFuture<Boolean> backgroundSave;
+    // Whether the CSV files have changed since the snapshot was last written
+    private boolean snapshotStale;
+
+    /**
+     * Constructs an IncrementalSaver writing to the CSV files in the given directory.
+     *
+     * @param dataDirectory The directory containing the CSV files, ending with a path separator.
+     */
+    public IncrementalSaver(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.projectLog = new DeltaLog(dataDirectory + DataBootstrap.PROJECT_FILE);
+        this.applicationLog = new DeltaLog(dataDirectory + DataBootstrap.APPLICATION_FILE);
+        this.enquiryLog = new DeltaLog(dataDirectory + DataBootstrap.ENQUIRY_FILE);
+    }
+    /**
+     * Records the given projects, and their applications and enquiries, as already saved.
+     * This is called once after loading so that only later changes are written.
+     *
+     * @param projects All projects in the system.
+     */
+    public void markSaved(List<Project> projects) {
+        savedKeys.clear();
+        for (Project project : projects) {
+            savedKeys.put(project, projectKey(project.getProjectName()));
+            project.clearDirty();
+            for (Application app : project.getApplications()) {
+                savedKeys.put(app, applicationKey(app.getApplicant().getNric()));
+                app.clearDirty();
+            }
+            for (Enquiry enquiry : project.getEnquiries()) {
+                savedKeys.put(enquiry, enquiryKey(enquiry));
+                enquiry.clearDirty();
+            }
+        }
+        projectLog.records = countRecords(projectLog.path);
+        applicationLog.records = countRecords(applicationLog.path);
+        enquiryLog.records = countRecords(enquiryLog.path);
+    }
+    /**
+     * Saves the changes made since the last save. New and modified records are appended as upserts and removed
+     * records as deletes; if any delta log would grow past the compaction threshold, all files are rewritten instead.
+     *
+     * @param projects All projects in the system.
+     * @return true if the changes were written, false if writing the delta logs or rewriting the files failed.
+     */
+    public boolean save(List<Project> projects) {
+        awaitBackgroundSave();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Runnable> clearFlags = new ArrayList<>();
+        int liveApplications = 0;
+        int liveEnquiries = 0;
+
+        for (Project project : projects) {
+            track(projectLog, project, projectKey(project.getProjectName()), project.isDirty(),
+                    DataSaver.formatProjectData(project), seen);
+            clearFlags.add(project::clearDirty);
+            for (Application app : project.getApplications()) {
+                if (app.isDirty() || !savedKeys.containsKey(app)) {
+                    track(applicationLog, app, applicationKey(app.getApplicant().getNric()), true,
+                            DataSaver.formatApplicationData(app), seen);
+                    clearFlags.add(app::clearDirty);
+                }
+                seen.add(app);
+                liveApplications++;
+            }
+            for (Enquiry enquiry : project.getEnquiries()) {
+                if (enquiry.isDirty() || !savedKeys.containsKey(enquiry)) {
+                    track(enquiryLog, enquiry, enquiryKey(enquiry), true,
+                            DataSaver.formatEnquiryData(enquiry), seen);
+                    clearFlags.add(enquiry::clearDirty);
+                }
+                seen.add(enquiry);
+                liveEnquiries++;
+            }
+        }
+
+        // Anything saved before but no longer reachable has been deleted
+        Iterator<Map.Entry<Object, String>> it = savedKeys.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Object, String> entry = it.next();
+            if (!seen.contains(entry.getKey())) {
+                logFor(entry.getKey()).delete(entry.getValue());
+                it.remove();
+            }
+        }
+
+        if (projectLog.needsCompaction(projects.size())
+                || applicationLog.needsCompaction(liveApplications)
+                || enquiryLog.needsCompaction(liveEnquiries)) {
+            return compact(projects);
+        }
+        try {
+            snapshotStale |= projectLog.pending + applicationLog.pending + enquiryLog.pending > 0;
+            projectLog.flush();
+            applicationLog.flush();
+            enquiryLog.flush();
+            clearFlags.forEach(Runnable::run);
+            if (snapshotStale) {
+                DataSaver.saveSnapshot(dataDirectory + DataBootstrap.SNAPSHOT_FILE, projects);
+                snapshotStale = false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error saving changes: " + e.getMessage());
+            return false;
+        }
+    }
+    /**
+     * Rewrites every CSV file and the snapshot from the in-memory state and discards the delta logs.
+     * Each delta log is discarded only once its CSV file has been rewritten, so if a rewrite fails, the logs of
+     * the files that were not rewritten are kept and the failure is reported. The snapshot is only a cache that
+     * is ignored while it is older than the CSV files, so failing to write it does not fail the compaction.
+     *
+     * @param projects All projects in the system.
+     * @return true if every CSV file was rewritten, false if one could not be written.
+     */
+    public boolean compact(List<Project> projects) {
+        awaitBackgroundSave();
+        List<Application> allApplications = new ArrayList<>();
+        List<Enquiry> allEnquiries = new ArrayList<>();
+        for (Project project : projects) {
+            allApplications.addAll(project.getApplications());
+            allEnquiries.addAll(project.getEnquiries());
+        }
+        try {
+            DataSaver.writeApplications(applicationLog.path, allApplications);
+            applicationLog.discard();
+            DataSaver.writeEnquiries(enquiryLog.path, allEnquiries);
+            enquiryLog.discard();
+            DataSaver.writeProjects(projectLog.path, projects);
+            projectLog.discard();
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+            return false;
+        }
+        DataSaver.saveSnapshot(dataDirectory + DataBootstrap.SNAPSHOT_FILE, projects);
+        snapshotStale = false;
+        markSaved(projects);
+        return true;
+    }
+    /**
+     * Rewrites every CSV file from the current state on the background saver thread, without waiting for it.
+     * The records are captured before this method returns; each delta log is deleted as soon as its CSV file has
+     * been replaced, since the new file already contains its changes. The snapshot and the journal are left
+     * alone, because the state keeps changing after the capture; the next save rewrites the snapshot. Records changed before the capture stay marked
+     * as changed, so a later incremental save may write them again, which is harmless.
+     *
+     * @param projects All projects in the system.
+     * @return A future completing with true once every CSV file has been rewritten, or with false if one could
+     *         not be written, in which case the error has been reported.
+     */
+    public CompletableFuture<Boolean> saveInBackground(List<Project> projects) {
+        backgroundSave = DataSaver.saveAllInBackground(dataDirectory, projects,
+                csvPath -> new File(csvPath + DELTA_SUFFIX).delete())
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        System.out.println("Error saving data: " + cause.getMessage());
+                        return false;
+                    }
+                    return true;
+                });
+        return backgroundSave;
+    }
+    /**
+     * Waits for the last background save, if any, and recounts the delta logs it may have deleted, so that no
+     * delta log is appended to while its CSV file is being replaced.
+     */
+    private void awaitBackgroundSave() {
+        if (backgroundSave == null) {
+            return;
+        }
+        backgroundSave.join();
+        backgroundSave = null;
+        // Even a failed background save may have replaced some of the files
+        snapshotStale = true;
+        projectLog.records = countRecords(projectLog.path);
+        applicationLog.records = countRecords(applicationLog.path);
+        enquiryLog.records = countRecords(enquiryLog.path);
+    }
+    /**
+     * Folds any delta logs left by a previous session into their CSV files and deletes the logs.
+     * Records are matched by the same keys the saver writes: project name, applicant NRIC, and
+     * project name, enquiry ID and applicant NRIC for enquiries.
+     *
+     * @param dataDirectory The directory containing the CSV files, ending with a path separator.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void applyPendingDeltas(String dataDirectory) throws IOException {
+        applyDelta(dataDirectory + DataBootstrap.PROJECT_FILE, DataSaver.PROJECT_HEADER);
+        applyDelta(dataDirectory + DataBootstrap.APPLICATION_FILE, DataSaver.APPLICATION_HEADER);
+        applyDelta(dataDirectory + DataBootstrap.ENQUIRY_FILE, DataSaver.ENQUIRY_HEADER);
+    }
+    /**
+     * Folds one delta log into its CSV file.
+     *
+     * @param filePath The path to the CSV file.
+     * @param defaultHeader The header to write if the CSV file does not exist yet.
+     * @throws IOException If a file cannot be read or written.
+     */
+    private static void applyDelta(String filePath, String defaultHeader) throws IOException {
+        File delta = new File(filePath + DELTA_SUFFIX);
+        if (!delta.exists()) {
+            return;
+        }
+        String fileName = new File(filePath).getName();
+        String[] header = defaultHeader.split(",");
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        if (new File(filePath).exists()) {
+            try (CsvReader csv = CsvReader.open(filePath)) {
+                if (csv.nextRow()) {
+                    header = fields(csv, 0);
+                }
+                while (csv.nextRow()) {
+                    String[] row = fields(csv, 0);
+                    rows.put(rowKey(fileName, row), row);
+                }
+            }
+        }
+        try (CsvReader csv = CsvReader.open(delta.getPath())) {
+            while (csv.nextRow()) {
+                String[] record = verifiedRecord(csv);
+                if (record == null) {
+                    System.out.println(delta.getName() + " ends with an incomplete record at line " + csv.rowNumber() + ".");
+                    break;
+                }
+                if (record[0].equalsIgnoreCase("U")) {
+                    String[] row = Arrays.copyOfRange(record, 1, record.length);
+                    rows.put(rowKey(fileName, row), row);
+                } else if (record[0].equalsIgnoreCase("D")) {
+                    rows.remove(record[1]);
+                }
+            }
+        }
+
+        String[] headerRow = header;
+        DataSaver.writeAtomically(filePath, writer -> {
+            CsvRowEncoder encoder = new CsvRowEncoder();
+            encoder.addAll(headerRow).writeRowTo(writer);
+            for (String[] row : rows.values()) {
+                encoder.addAll(row).writeRowTo(writer);
+            }
+        });
+        Files.delete(delta.toPath());
+    }
+    /**
+     * Records a change to a single record in its delta log if it is new, modified or renamed.
+     *
+     * @param log The delta log of the record's file.
+     * @param record The project, application or enquiry.
+     * @param key The key the record is saved under now.
+     * @param dirty Whether the record has unsaved changes.
+     * @param row The CSV row for the record.
+     * @param seen The set of records reached during this save.
+     */
+    private void track(DeltaLog log, Object record, String key, boolean dirty, String row, Set<Object> seen) {
+        seen.add(record);
+        String previous = savedKeys.get(record);
+        if (previous != null && previous.equals(key) && !dirty) {
+            return;
+        }
+        if (previous != null && !previous.equals(key)) {
+            log.delete(previous);
+        }
+        log.upsert(row);
+        savedKeys.put(record, key);
+    }
+    /**
+     * Returns the delta log that holds records of the given object's type.
+     *
+     * @param record A project, application or enquiry.
+     * @return The matching delta log.
+     */
+    private DeltaLog logFor(Object record) {
+        if (record instanceof Project) {
+            return projectLog;
+        }
+        return record instanceof Application ? applicationLog : enquiryLog;
+    }
+    /**
+     * Computes the key of a CSV row of the given file, matching the keys of in-memory records.
+     *
+     * @param fileName The name of the CSV file the row belongs to.
+     * @param row The fields of the row.
+     * @return The row key.
+     */
+    private static String rowKey(String fileName, String[] row) {
+        switch (fileName) {
+            case DataBootstrap.PROJECT_FILE:
+                return projectKey(field(row, 0));
+            case DataBootstrap.APPLICATION_FILE:
+                return applicationKey(field(row, 1));
+            default:
+                return enquiryKey(field(row, 3), field(row, 0), field(row, 2));
+        }
+    }
+    /**
+     * Builds the key of a project.
+     *
+     * @param projectName The project name.
+     * @return The project key.
+     */
+    private static String projectKey(String projectName) {
+        return projectName.trim().toLowerCase(Locale.ROOT);
+    }
+    /**
+     * Builds the key of an application. Each applicant holds at most one application.
+     *
+     * @param nric The applicant's NRIC.
+     * @return The application key.
+     */
+    private static String applicationKey(String nric) {
+        return nric.trim().toUpperCase(Locale.ROOT);
+    }
+    /**
+     * Builds the key of an enquiry.
+     *
+     * @param enquiry The enquiry.
+     * @return The enquiry key.
+     */
+    private static String enquiryKey(Enquiry enquiry) {
+        return enquiryKey(enquiry.getProject().getProjectName(), String.valueOf(enquiry.getEnquiryId()),
+                enquiry.getApplicant().getNric());
+    }
+    /**
+     * Builds the key of an enquiry from its project name, ID and applicant NRIC.
+     *
+     * @param projectName The project name.
+     * @param enquiryId The enquiry ID.
+     * @param nric The applicant's NRIC.
+     * @return The enquiry key.
+     */
+    private static String enquiryKey(String projectName, String enquiryId, String nric) {
+        return projectKey(projectName) + "|" + enquiryId.trim() + "|" + applicationKey(nric);
+    }
+    /**
+     * Returns a field of a row, or an empty string if the row is too short.
+     *
+     * @param row The fields of the row.
+     * @param index The zero-based field index.
+     * @return The field value.
+     */
+    private static String field(String[] row, int index) {
+        return index < row.length ? row[index] : "";
+    }
+    /**
+     * Copies the fields of the current row, starting at the given index.
+     *
+     * @param csv The reader positioned on a row.
+     * @param from The index of the first field to copy.
+     * @return The copied fields.
+     */
+    private static String[] fields(CsvReader csv, int from) {
+        String[] row = new String[Math.max(0, csv.fieldCount() - from)];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = csv.getString(from + i);
+        }
+        return row;
+    }
+    /**
+     * Copies the fields of the current delta record without its checksum, after verifying the checksum.
+     *
+     * @param csv The reader positioned on a delta record.
+     * @return The fields of the record, or null if the record is incomplete or its checksum does not match.
+     */
+    private static String[] verifiedRecord(CsvReader csv) {
+        String[] fields = fields(csv, 0);
+        if (fields.length < 3) {
+            return null;
+        }
+        String[] record = Arrays.copyOf(fields, fields.length - 1);
+        if (!withChecksum(CsvRowEncoder.encode(record)).equals(CsvRowEncoder.encode(fields))) {
+            return null;
+        }
+        return record;
+    }
+    /**
+     * Appends the CRC32 checksum of an encoded row to it as an extra last field.
+     *
+     * @param row The encoded row, terminated by a line feed.
+     * @return The row with its checksum, terminated by a line feed.
+     */
+    private static String withChecksum(String row) {
+        CRC32 crc = new CRC32();
+        crc.update(row.getBytes(StandardCharsets.UTF_8));
+        return row.substring(0, row.length() - 1) + ',' + Long.toHexString(crc.getValue()) + '\n';
+    }
+    /**
+     * Counts the complete records in an existing delta log. If the log ends with an incomplete record,
+     * it is cut back to the complete ones so that later appends are not stranded behind it.
+     *
+     * @param csvPath The path to the CSV file whose delta log is counted.
+     * @return The number of complete records, or 0 if there is no delta log.
+     */
+    private static int countRecords(String csvPath) {
+        File delta = new File(csvPath + DELTA_SUFFIX);
+        if (!delta.exists()) {
+            return 0;
+        }
+        int count = 0;
+        boolean torn = false;
+        try (CsvReader csv = CsvReader.open(delta.getPath())) {
+            while (csv.nextRow()) {
+                if (verifiedRecord(csv) == null) {
+                    torn = true;
+                    break;
+                }
+                count++;
+            }
+            if (torn) {
+                System.out.println(delta.getName() + " ends with an incomplete record at line " + csv.rowNumber() + ".");
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading " + delta.getName() + ": " + e.getMessage());
+            return count;
+        }
+        if (torn) {
+            int complete = count;
+            try {
+                DataSaver.writeAtomically(delta.getPath(), writer -> {
+                    CsvRowEncoder encoder = new CsvRowEncoder();
+                    try (CsvReader csv = CsvReader.open(delta.getPath())) {
+                        for (int i = 0; i < complete && csv.nextRow(); i++) {
+                            encoder.addAll(fields(csv, 0)).writeRowTo(writer);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                System.out.println("Error repairing " + delta.getName() + ": " + e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pending delta records for one CSV file. Deletes are written before upserts so that a record
+     * deleted and re-created under the same key in one save ends up present.
+     */
+    private static final class DeltaLog {
+        private final String path;
+        private final StringBuilder deletes = new StringBuilder();
+        private final StringBuilder upserts = new StringBuilder();
+        private final CsvRowEncoder encoder = new CsvRowEncoder();
+        private int pending;
+        private int records;
+
+        /**
+         * Constructs a delta log for the given CSV file.
+         *
+         * @param path The path to the CSV file.
+         */
+        private DeltaLog(String path) {
+            this.path = path;
+        }
+        /**
+         * Adds an upsert record.
+         *
+         * @param row The CSV row of the record, terminated by a line break.
+         */
+        private void upsert(String row) {
+            upserts.append(withChecksum("U," + row));
+            pending++;
+        }
+        /**
+         * Adds a delete record.
+         *
+         * @param key The key of the deleted record.
+         */
+        private void delete(String key) {
+            deletes.append(withChecksum(encoder.add("D").add(key).toRow()));
+            pending++;
+        }
+        /**
+         * Checks whether this log would be too large relative to the live data after the pending records.
+         *
+         * @param liveRecords The number of live records of this file.
+         * @return true if the file should be rewritten in full.
+         */
+        private boolean needsCompaction(int liveRecords) {
+            int total = records + pending;
+            return total > MIN_COMPACTION_RECORDS && total > liveRecords * COMPACTION_RATIO;
+        }
+        /**
+         * Appends the pending records to the delta log file and syncs it to disk.
+         *
+         * @throws IOException If the log cannot be written.
+         */
+        private void flush() throws IOException {
+            if (pending == 0) {
+                return;
+            }
+            DataSaver.ensureDirectoryExists(path);
+            try (FileOutputStream out = new FileOutputStream(path + DELTA_SUFFIX, true);
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                writer.append(deletes).append(upserts);
+                writer.flush();
+                out.getFD().sync();
+            }
+            records += pending;
+            clearPending();
+        }
+        /**
+         * Deletes the delta log file and drops any pending records, after the CSV file has been rewritten.
+         */
+        private void discard() {
+            new File(path + DELTA_SUFFIX).delete();
+            records = 0;
+            clearPending();
+        }
+        /**
+         * Drops the pending records.
+         */
+        private void clearPending() {
+            deletes.setLength(0);
+            upserts.setLength(0);
+            pending = 0;
+        }
+    }
+}
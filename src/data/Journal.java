@@ -0,0 +1,593 @@
+package data;
+
+import model.project.FlatType;
+import model.project.Project;
+import model.transaction.Application;
+import model.transaction.ApplicationStatus;
+import model.transaction.Enquiry;
+import model.user.Applicant;
+import model.user.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+/**
+ * The Journal class is an append-only write-ahead log of the changes made during a session, so that a crash
+ * does not lose everything done since the CSV files were last saved. Each change is appended as one short CSV
+ * line ending in a CRC32 checksum, and {@link #record(Op, Object...)} returns only once the line is on disk.
+ * A single background thread writes and syncs whatever has accumulated since its last sync, so changes recorded
+ * by several threads at once share one fsync (group commit). If a write fails, the file is cut back to the end
+ * of the last synced record, so that it never ends in a torn record, and the batch is written again; after
+ * three failed attempts the journal is closed and changes are only saved on exit.
+ * On startup the journal is replayed on top of the loaded CSV data; once the data is saved it is checkpointed.
+ */
+public class Journal {
+    /**
+     * The kinds of change recorded in the journal. Applications are identified by their applicant's NRIC,
+     * and enquiries by their project name and enquiry ID.
+     */
+    public enum Op {
+        /** Fields: applicant NRIC, project name, flat type, application date. */
+        APPLY,
+        /** Fields: applicant NRIC. */
+        REQUEST_WITHDRAWAL,
+        /** Fields: applicant NRIC. */
+        APPROVE,
+        /** Fields: applicant NRIC. */
+        REJECT,
+        /** Fields: applicant NRIC. */
+        APPROVE_WITHDRAWAL,
+        /** Fields: applicant NRIC. */
+        REJECT_WITHDRAWAL,
+        /** Fields: applicant NRIC. */
+        BOOK,
+        /** Fields: project name, enquiry ID, applicant NRIC, message. */
+        SUBMIT_ENQUIRY,
+        /** Fields: project name, enquiry ID, applicant NRIC, new message. */
+        EDIT_ENQUIRY,
+        /** Fields: project name, enquiry ID, applicant NRIC. */
+        DELETE_ENQUIRY,
+        /** Fields: project name, enquiry ID, reply. */
+        REPLY_ENQUIRY,
+        /** Fields: user NRIC, new password hash. */
+        CHANGE_PASSWORD
+    }
+
+    /** The number of times a batch is written before the journal gives up. */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    /** The pause before writing a failed batch again, multiplied by the number of failed attempts. */
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private static final Object lock = new Object();
+    private static final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    // Users are not written back by the save path, so their latest password record survives checkpoints
+    private static final Map<String, String> passwordRecords = new LinkedHashMap<>();
+    private static FileChannel channel;
+    private static Thread flusher;
+    private static long appendedSeq;
+    private static long durableSeq;
+    // The length of the file up to the end of the last synced record
+    private static long durableSize;
+    private static IOException failure;
+
+    /**
+     * The outcome of replaying one journal record.
+     */
+    private enum Replayed {
+        /** The change was applied to the loaded data. */
+        APPLIED,
+        /** The loaded data already contains the change, because it was saved after the record was written. */
+        ALREADY_APPLIED,
+        /** The record refers to a user, project, application or enquiry that does not exist. */
+        UNKNOWN_REFERENCE
+    }
+
+    /**
+     * Prevents instantiation; the journal is used through its static methods, like {@link ProjectRepository}.
+     */
+    private Journal() {
+    }
+    /**
+     * Opens the journal file for appending and starts the background flusher. Until this is called,
+     * {@link #record(Op, Object...)} does nothing.
+     *
+     * @param filePath The path to the journal file.
+     * @throws IOException If the file cannot be opened.
+     * @throws IllegalStateException If the journal is already open.
+     */
+    public static void open(String filePath) throws IOException {
+        synchronized (lock) {
+            if (channel != null) {
+                throw new IllegalStateException("Journal is already open.");
+            }
+            DataSaver.ensureDirectoryExists(filePath);
+            channel = FileChannel.open(Path.of(filePath),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            durableSize = channel.size();
+            failure = null;
+            flusher = new Thread(Journal::flushLoop, "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+    /**
+     * Appends a change to the journal and waits until it has been synced to disk.
+     *
+     * @param op The kind of change.
+     * @param fields The fields of the record, as listed on the {@link Op} constant.
+     */
+    public static void record(Op op, Object... fields) {
+        String[] row = new String[fields.length + 1];
+        row[0] = op.name();
+        for (int i = 0; i < fields.length; i++) {
+            row[i + 1] = String.valueOf(fields[i]);
+        }
+        String line = withChecksum(row);
+
+        synchronized (lock) {
+            if (op == Op.CHANGE_PASSWORD) {
+                passwordRecords.put(row[1].trim().toUpperCase(Locale.ROOT), line);
+            }
+            if (channel == null) {
+                return;
+            }
+            pending.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            long seq = ++appendedSeq;
+            lock.notifyAll();
+            awaitDurable(seq);
+            reportIfLost(seq);
+        }
+    }
+    /**
+     * Appends one change per applicant and waits once until all of them have been synced to disk, for changes
+     * made to many applications at once.
+     *
+     * @param op The kind of change, which must be one whose only field is the applicant NRIC.
+     * @param nrics The NRICs of the applicants whose applications changed.
+     */
+    public static void recordAll(Op op, List<String> nrics) {
+        if (nrics.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (String nric : nrics) {
+            lines.writeBytes(withChecksum(new String[] { op.name(), nric }).getBytes(StandardCharsets.UTF_8));
+        }
+
+        synchronized (lock) {
+            if (channel == null) {
+                return;
+            }
+            pending.writeBytes(lines.toByteArray());
+            long seq = ++appendedSeq;
+            lock.notifyAll();
+            awaitDurable(seq);
+            reportIfLost(seq);
+        }
+    }
+    /**
+     * Empties the journal after all data has been saved to the CSV files. The latest password change of each
+     * user is kept, since passwords are not part of the saved files.
+     */
+    public static void checkpoint() {
+        synchronized (lock) {
+            if (channel == null) {
+                return;
+            }
+            awaitDurable(appendedSeq);
+            try {
+                channel.truncate(0);
+                StringBuilder retained = new StringBuilder();
+                passwordRecords.values().forEach(retained::append);
+                ByteBuffer buffer = ByteBuffer.wrap(retained.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+                durableSize = channel.size();
+            } catch (IOException e) {
+                System.out.println("Error checkpointing journal: " + e.getMessage());
+            }
+        }
+    }
+    /**
+     * Waits for every recorded change to reach disk, then stops the flusher and closes the journal file.
+     */
+    public static void close() {
+        Thread stopped;
+        FileChannel closed;
+        synchronized (lock) {
+            if (channel == null) {
+                return;
+            }
+            awaitDurable(appendedSeq);
+            closed = channel;
+            stopped = flusher;
+            channel = null;
+            flusher = null;
+            // Only left over if writing failed; those records have already been reported as lost
+            pending.reset();
+            lock.notifyAll();
+        }
+        try {
+            stopped.join();
+            closed.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+    }
+    /**
+     * Re-applies the changes recorded in the journal to the loaded data. Replay stops at the first record whose
+     * checksum does not match, which is a line torn by a crash. Records referring to users, projects, applications
+     * or enquiries that no longer exist are skipped.
+     * <p>
+     * Replay is idempotent: a record is only applied if the state it changes is still as the original change found
+     * it, so the changes already in the data files are skipped. A crash after the data has been saved but before the
+     * journal is checkpointed therefore does not apply any change twice.
+     *
+     * @param filePath The path to the journal file.
+     * @param index The index over all loaded users and projects.
+     * @return The number of records applied.
+     * @throws IOException If the journal exists but cannot be read.
+     */
+    public static int replay(String filePath, EntityIndex index) throws IOException {
+        if (!new File(filePath).exists()) {
+            return 0;
+        }
+        int applied = 0;
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.nextRow()) {
+                String[] row = new String[Math.max(0, csv.fieldCount() - 1)];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = csv.getString(i);
+                }
+                if (row.length == 0 || !withChecksum(row).equals(CsvRowEncoder.encode(fieldsOf(csv)))) {
+                    System.out.println("Journal ends with an incomplete record at line " + csv.rowNumber() + ".");
+                    break;
+                }
+                try {
+                    Replayed replayed = apply(row, index);
+                    if (replayed == Replayed.APPLIED) {
+                        applied++;
+                    } else if (replayed == Replayed.UNKNOWN_REFERENCE) {
+                        System.out.println("Skipping journal record at line " + csv.rowNumber() + ": unknown reference.");
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping journal record at line " + csv.rowNumber() + ": " + e.getMessage());
+                }
+            }
+        }
+        return applied;
+    }
+    /**
+     * Applies a single journal record to the loaded data.
+     *
+     * @param row The fields of the record, without the checksum.
+     * @param index The index over all loaded users and projects.
+     * @return Whether the record was applied, was already in the data, or refers to something that does not exist.
+     * @throws IllegalStateException If the applicant of an APPLY record already holds a different application.
+     */
+    private static Replayed apply(String[] row, EntityIndex index) {
+        Op op = Op.valueOf(row[0].toUpperCase(Locale.ROOT));
+        switch (op) {
+            case APPLY -> {
+                Applicant applicant = index.findApplicant(row[1]);
+                Project project = index.findProject(row[2]);
+                if (applicant == null || project == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                FlatType flatType = FlatType.valueOf(row[3].toUpperCase(Locale.ROOT));
+                LocalDate applicationDate = LocalDate.parse(row[4]);
+                Application existing = applicant.getApplication();
+                if (existing != null) {
+                    if (existing.getProject() == project && existing.getFlatType() == flatType
+                            && applicationDate.equals(existing.getApplicationDate())) {
+                        return Replayed.ALREADY_APPLIED;
+                    }
+                    throw new IllegalStateException("Applicant already has another application.");
+                }
+                Application app = new Application(applicant, project, flatType);
+                app.setApplicationDate(applicationDate);
+                applicant.setApplication(app);
+                project.addApplication(app);
+            }
+            case REQUEST_WITHDRAWAL, APPROVE, REJECT, APPROVE_WITHDRAWAL, REJECT_WITHDRAWAL, BOOK -> {
+                Applicant applicant = index.findApplicant(row[1]);
+                if (applicant == null || applicant.getApplication() == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                if (!applyToApplication(op, applicant.getApplication())) {
+                    return Replayed.ALREADY_APPLIED;
+                }
+            }
+            case SUBMIT_ENQUIRY -> {
+                Project project = index.findProject(row[1]);
+                Applicant applicant = index.findApplicant(row[3]);
+                if (project == null || applicant == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                if (findEnquiry(project, Integer.parseInt(row[2]), row[3]) != null) {
+                    return Replayed.ALREADY_APPLIED;
+                }
+                Enquiry enquiry = new Enquiry(Integer.parseInt(row[2]), row[4], project, applicant);
+                applicant.getEnquiries().add(enquiry);
+                project.addEnquiry(enquiry);
+            }
+            case EDIT_ENQUIRY, DELETE_ENQUIRY -> {
+                Project project = index.findProject(row[1]);
+                Enquiry enquiry = project == null ? null : findEnquiry(project, Integer.parseInt(row[2]), row[3]);
+                if (enquiry == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                if (op == Op.EDIT_ENQUIRY) {
+                    editEnquiry(enquiry, row[4]);
+                } else {
+                    enquiry.getApplicant().getEnquiries().remove(enquiry);
+                    project.getEnquiries().remove(enquiry);
+                }
+            }
+            case REPLY_ENQUIRY -> {
+                Project project = index.findProject(row[1]);
+                Enquiry enquiry = project == null ? null : project.getEnquiryById(Integer.parseInt(row[2]));
+                if (enquiry == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                enquiry.setReply(row[3]);
+            }
+            case CHANGE_PASSWORD -> {
+                User user = index.findUser(row[1]);
+                if (user == null) {
+                    return Replayed.UNKNOWN_REFERENCE;
+                }
+                user.setPassword(row[2]);
+                synchronized (lock) {
+                    passwordRecords.put(row[1].trim().toUpperCase(Locale.ROOT), withChecksum(row));
+                }
+            }
+        }
+        return Replayed.APPLIED;
+    }
+    /**
+     * Applies a review, withdrawal or booking record to an application, with the same effect as the
+     * corresponding controller or service method, unless the application is no longer in the state that
+     * change was made from.
+     *
+     * @param op The kind of change.
+     * @param app The application the change applies to.
+     * @return true if the change was applied, false if the application already reflects it.
+     */
+    private static boolean applyToApplication(Op op, Application app) {
+        ApplicationStatus status = app.getStatus();
+        boolean applicable = switch (op) {
+            case REQUEST_WITHDRAWAL -> !app.isWithdrawalRequested();
+            case APPROVE, REJECT -> status == ApplicationStatus.PENDING;
+            case APPROVE_WITHDRAWAL, REJECT_WITHDRAWAL -> app.isWithdrawalRequested();
+            case BOOK -> status == ApplicationStatus.SUCCESSFUL;
+            default -> throw new IllegalArgumentException("Not an application change: " + op);
+        };
+        if (!applicable) {
+            return false;
+        }
+        switch (op) {
+            case REQUEST_WITHDRAWAL -> app.requestWithdrawal();
+            case APPROVE -> app.approve();
+            case REJECT -> app.reject();
+            case REJECT_WITHDRAWAL -> app.cancelWithdrawalRequest();
+            case BOOK -> {
+                app.setStatus(ApplicationStatus.BOOKED);
+                app.getProject().tryReserve(app.getFlatType());
+            }
+            case APPROVE_WITHDRAWAL -> {
+                if (app.getStatus() == ApplicationStatus.PENDING) {
+                    app.getApplicant().setApplication(null);
+                    app.getProject().getApplications().remove(app);
+                } else {
+                    if (app.getStatus() == ApplicationStatus.BOOKED) {
+                        app.getProject().release(app.getFlatType());
+                    }
+                    app.withdraw();
+                }
+            }
+            default -> throw new IllegalArgumentException("Not an application change: " + op);
+        }
+        return true;
+    }
+    /**
+     * Finds an enquiry of a project by its ID and applicant.
+     *
+     * @param project The project the enquiry belongs to.
+     * @param enquiryId The enquiry ID.
+     * @param nric The NRIC of the applicant who submitted the enquiry.
+     * @return The matching enquiry, or null if none exists.
+     */
+    private static Enquiry findEnquiry(Project project, int enquiryId, String nric) {
+        for (Enquiry enquiry : project.getEnquiries()) {
+            if (enquiry.getEnquiryId() == enquiryId && enquiry.getApplicant().getNric().equalsIgnoreCase(nric.trim())) {
+                return enquiry;
+            }
+        }
+        return null;
+    }
+    /**
+     * Edits an enquiry message the same way {@code EnquiryService.editEnquiry} does, including the first enquiry
+     * with the same ID in the project's and the applicant's lists.
+     *
+     * @param enquiry The enquiry to edit.
+     * @param message The new message.
+     */
+    private static void editEnquiry(Enquiry enquiry, String message) {
+        enquiry.setEnquiryMessage(message);
+        for (Enquiry e : enquiry.getProject().getEnquiries()) {
+            if (e.getEnquiryId() == enquiry.getEnquiryId()) {
+                e.setEnquiryMessage(message);
+                break;
+            }
+        }
+        for (Enquiry e : enquiry.getApplicant().getEnquiries()) {
+            if (e.getEnquiryId() == enquiry.getEnquiryId()) {
+                e.setEnquiryMessage(message);
+                break;
+            }
+        }
+    }
+    /**
+     * Encodes a record as a CSV line with its CRC32 checksum appended as the last field.
+     *
+     * @param row The fields of the record.
+     * @return The encoded line, terminated by a line feed.
+     */
+    private static String withChecksum(String[] row) {
+        CRC32 crc = new CRC32();
+        crc.update(CsvRowEncoder.encode(row).getBytes(StandardCharsets.UTF_8));
+        String[] withCrc = Arrays.copyOf(row, row.length + 1);
+        withCrc[row.length] = Long.toHexString(crc.getValue());
+        return CsvRowEncoder.encode(withCrc);
+    }
+    /**
+     * Copies all fields of the current row.
+     *
+     * @param csv The reader positioned on a row.
+     * @return The fields of the row.
+     */
+    private static String[] fieldsOf(CsvReader csv) {
+        String[] row = new String[csv.fieldCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = csv.getString(i);
+        }
+        return row;
+    }
+    /**
+     * Reports, while holding the lock, that a record could not be written because the journal failed or was closed.
+     *
+     * @param seq The sequence number of the record.
+     */
+    private static void reportIfLost(long seq) {
+        if (durableSeq < seq && failure != null) {
+            System.out.println("Error writing journal: " + failure.getMessage() + ". Changes will only be saved on exit.");
+        }
+    }
+    /**
+     * Waits, while holding the lock, until the record with the given sequence number has been synced,
+     * the flusher has given up, or the journal has been closed.
+     *
+     * @param seq The sequence number to wait for.
+     */
+    private static void awaitDurable(long seq) {
+        while (durableSeq < seq && failure == null && channel != null) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    /**
+     * Body of the flusher thread: repeatedly takes every pending record, writes them in one call and syncs the file.
+     * A batch that fails is cut from the file and written again; once it has failed too often, or cannot be cut,
+     * the journal is closed. The thread ends once the journal is closed.
+     */
+    private static void flushLoop() {
+        int failedAttempts = 0;
+        while (true) {
+            byte[] batch;
+            long batchSeq;
+            FileChannel out;
+            synchronized (lock) {
+                while (pending.size() == 0 && channel != null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (channel == null) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending.reset();
+                batchSeq = appendedSeq;
+                out = channel;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+                synchronized (lock) {
+                    durableSeq = batchSeq;
+                    durableSize += batch.length;
+                    lock.notifyAll();
+                }
+                failedAttempts = 0;
+            } catch (IOException e) {
+                failedAttempts++;
+                if (!retry(out, batch, failedAttempts, e)) {
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS * failedAttempts);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+    /**
+     * Cuts a failed batch from the journal file and puts it back in front of the records appended since, to be
+     * written again. If the batch has failed too often or cannot be cut, the journal is closed instead, so that
+     * no later record is written after a torn one, which replay would never reach.
+     *
+     * @param out The journal file the batch was written to.
+     * @param batch The records of the failed batch.
+     * @param failedAttempts The number of times the batch has failed.
+     * @param cause The error that failed the batch.
+     * @return true if the batch will be written again, false if the journal was closed.
+     */
+    private static boolean retry(FileChannel out, byte[] batch, int failedAttempts, IOException cause) {
+        synchronized (lock) {
+            if (channel != out) {
+                // Closed in the meantime
+                return false;
+            }
+            try {
+                out.truncate(durableSize);
+                if (failedAttempts < MAX_WRITE_ATTEMPTS) {
+                    byte[] later = pending.toByteArray();
+                    pending.reset();
+                    pending.writeBytes(batch);
+                    pending.writeBytes(later);
+                    return true;
+                }
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+            failure = cause;
+            channel = null;
+            flusher = null;
+            pending.reset();
+            lock.notifyAll();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        return false;
+    }
+}
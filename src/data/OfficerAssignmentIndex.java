@@ -0,0 +1,109 @@
+package data;
+
+import model.project.Project;
+import model.user.HDBManager;
+import model.user.HDBOfficer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+/**
+ * The OfficerAssignmentIndex class links officers, the projects they are assigned to, and the managers in charge
+ * of those projects in both directions, so that the officers working under a manager can be listed in time
+ * proportional to their number instead of by scanning every officer and every assignment.
+ * <p>
+ * For each manager the index counts how many of the manager's projects each officer is assigned to; an officer
+ * is listed under a manager while that count is above zero. The index must be told about every assignment
+ * through {@link #assign(HDBOfficer, Project)} and about every deleted project through {@link #removeProject(Project)}.
+ * All methods are synchronised, so the index can be used from several sessions at once.
+ */
+public class OfficerAssignmentIndex {
+    /** The officers assigned to each project, in the order they were assigned. */
+    private static final Map<Project, Set<HDBOfficer>> officersByProject = new IdentityHashMap<>();
+    /** The projects each officer is assigned to, in the order they were assigned. */
+    private static final Map<HDBOfficer, Set<Project>> projectsByOfficer = new IdentityHashMap<>();
+    /** The manager each project was indexed under. */
+    private static final Map<Project, HDBManager> managerByProject = new IdentityHashMap<>();
+    /** For each manager, the number of the manager's projects each officer is assigned to. */
+    private static final Map<HDBManager, Map<HDBOfficer, Integer>> officersByManager = new IdentityHashMap<>();
+
+    /**
+     * Records that an officer is assigned to a project, under the project's current manager.
+     * Recording the same assignment again has no effect.
+     *
+     * @param officer The assigned officer.
+     * @param project The project the officer is assigned to.
+     */
+    public static synchronized void assign(HDBOfficer officer, Project project) {
+        if (!officersByProject.computeIfAbsent(project, k -> new LinkedHashSet<>()).add(officer)) {
+            return;
+        }
+        projectsByOfficer.computeIfAbsent(officer, k -> new LinkedHashSet<>()).add(project);
+        HDBManager manager = project.getManager();
+        if (manager != null) {
+            managerByProject.put(project, manager);
+            officersByManager.computeIfAbsent(manager, k -> new LinkedHashMap<>()).merge(officer, 1, Integer::sum);
+        }
+    }
+    /**
+     * Forgets every assignment to a deleted project.
+     *
+     * @param project The deleted project.
+     */
+    public static synchronized void removeProject(Project project) {
+        Set<HDBOfficer> officers = officersByProject.remove(project);
+        HDBManager manager = managerByProject.remove(project);
+        if (officers == null) {
+            return;
+        }
+        Map<HDBOfficer, Integer> managerCounts = manager == null ? null : officersByManager.get(manager);
+        for (HDBOfficer officer : officers) {
+            Set<Project> projects = projectsByOfficer.get(officer);
+            projects.remove(project);
+            if (projects.isEmpty()) {
+                projectsByOfficer.remove(officer);
+            }
+            if (managerCounts != null) {
+                // Drop the officer from the manager once none of the manager's projects is left
+                managerCounts.computeIfPresent(officer, (k, count) -> count == 1 ? null : count - 1);
+            }
+        }
+        if (managerCounts != null && managerCounts.isEmpty()) {
+            officersByManager.remove(manager);
+        }
+    }
+    /**
+     * Retrieves the officers assigned to at least one project of a manager.
+     *
+     * @param manager The manager.
+     * @return A new list of the officers, in the order they were first assigned to one of the manager's projects.
+     */
+    public static synchronized List<HDBOfficer> findOfficersForManager(HDBManager manager) {
+        Map<HDBOfficer, Integer> officers = officersByManager.get(manager);
+        return officers == null ? new ArrayList<>() : new ArrayList<>(officers.keySet());
+    }
+    /**
+     * Retrieves the officers assigned to a project.
+     *
+     * @param project The project.
+     * @return A new list of the officers, in the order they were assigned.
+     */
+    public static synchronized List<HDBOfficer> findOfficersForProject(Project project) {
+        Set<HDBOfficer> officers = officersByProject.get(project);
+        return officers == null ? new ArrayList<>() : new ArrayList<>(officers);
+    }
+    /**
+     * Retrieves the projects an officer is assigned to.
+     *
+     * @param officer The officer.
+     * @return A new list of the projects, in the order they were assigned.
+     */
+    public static synchronized List<Project> findProjectsForOfficer(HDBOfficer officer) {
+        Set<Project> projects = projectsByOfficer.get(officer);
+        return projects == null ? new ArrayList<>() : new ArrayList<>(projects);
+    }
+}
@@ -2,50 +2,262 @@
 package data;
 
 import model.project.Project;
+import model.user.HDBManager;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 /**
  * The ProjectRepository class is responsible for managing the list of projects in memory.
  * It provides methods to add, remove, and retrieve projects, as well as to reset the list with a new set of projects.
+ * <p>
+ * Projects can be looked up by ID and by case-insensitive name in constant time, and listed by neighbourhood
+ * and by manager. All of this is held in one immutable {@link Snapshot} that writers replace as a whole, so the
+ * repository is safe to use from several sessions at once: readers never lock, never see a half-applied change,
+ * and iterating over the projects never fails because another session added or removed one. Writes rebuild
+ * the snapshot, which is cheap because projects change rarely compared to how often they are read.
+ * <p>
+ * The repository also maintains a {@link ProjectSearchIndex} over the projects' searchable attributes, which is
+ * updated in place rather than rebuilt.
  */
 public class ProjectRepository {
-    /** 
-     * A list that holds all the projects.
+    /** Serialises writers; readers only read {@link #current}. */
+    private static final Object writeLock = new Object();
+    /** The current contents of the repository. */
+    private static volatile Snapshot current = Snapshot.of(List.of());
+    /**
+     * A read-only view that always reflects the current projects.
      */
-    private static final List<Project> allProjects = new ArrayList<>();
+    private static final List<Project> allProjects = new LiveView();
+    /** Bitset index answering project searches. */
+    private static final ProjectSearchIndex searchIndex = new ProjectSearchIndex();
+
 
-    
     /**
-     * Adds a project to the repository.
-     * 
+     * Adds a project to the repository. A project without an ID is given the next free one.
+     *
      * @param project The project to be added to the repository.
      */
     public static void addProject(Project project) {
-        allProjects.add(project);
+        synchronized (writeLock) {
+            List<Project> projects = new ArrayList<>(current.projects());
+            if (project.getProjectID() <= 0) {
+                project.setProjectID(current.maxProjectId() + 1);
+            }
+            projects.add(project);
+            current = Snapshot.of(projects);
+            searchIndex.update(project);
+        }
     }
     /**
      * Removes a project from the repository.
-     * 
+     *
      * @param project The project to be removed from the repository.
      */
     public static void removeProject(Project project) {
-        allProjects.remove(project);
+        synchronized (writeLock) {
+            List<Project> projects = new ArrayList<>(current.projects());
+            if (projects.remove(project)) {
+                current = Snapshot.of(projects);
+                searchIndex.remove(project);
+            }
+        }
     }
     /**
-     * Retrieves all projects stored in the repository.
-     * 
+     * Updates the indexes after a project in the repository has changed. Must be called after a change to its name,
+     * neighbourhood, manager, visibility, flat types or unit counts.
+     *
+     * @param project The project that was changed.
+     */
+    public static void reindex(Project project) {
+        synchronized (writeLock) {
+            Snapshot snapshot = current;
+            if (snapshot.byId().get(project.getProjectID()) != project && !snapshot.projects().contains(project)) {
+                return;
+            }
+            // The lookup indexes are rebuilt only if a key they are built on has changed
+            if (!snapshot.isIndexedUnderCurrentKeys(project)) {
+                current = Snapshot.of(snapshot.projects());
+            }
+            searchIndex.update(project);
+        }
+    }
+    /**
+     * Retrieves all projects stored in the repository. The returned list cannot be modified and always reflects
+     * the current projects; each iteration or stream over it sees the projects as they were when it started.
+     *
      * @return A list of all projects in the repository.
      */
     public static List<Project> getAllProjects() {
         return allProjects;
     }
+    /**
+     * Retrieves the projects as they are now. Unlike {@link #getAllProjects()}, the returned list does not
+     * change when projects are added or removed later.
+     *
+     * @return An unmodifiable list of the current projects.
+     */
+    public static List<Project> snapshot() {
+        return current.projects();
+    }
+    /**
+     * Finds a project by its ID.
+     *
+     * @param projectId The ID of the project.
+     * @return The project with the given ID, or null if there is none.
+     */
+    public static Project findById(int projectId) {
+        return current.byId().get(projectId);
+    }
+    /**
+     * Finds a project by its name, ignoring case. If several projects share a name, the first one added is returned.
+     *
+     * @param projectName The name of the project.
+     * @return The project with the given name, or null if there is none.
+     */
+    public static Project findByName(String projectName) {
+        return projectName == null ? null : current.byName().get(key(projectName));
+    }
+    /**
+     * Retrieves the projects in a neighbourhood, ignoring case.
+     *
+     * @param neighbourhood The neighbourhood.
+     * @return An unmodifiable list of the projects in the neighbourhood, empty if there are none.
+     */
+    public static List<Project> findByNeighbourhood(String neighbourhood) {
+        return neighbourhood == null ? List.of() : current.byNeighbourhood().getOrDefault(key(neighbourhood), List.of());
+    }
+    /**
+     * Retrieves the projects managed by a manager.
+     *
+     * @param manager The manager.
+     * @return An unmodifiable list of the projects the manager is in charge of, empty if there are none.
+     */
+    public static List<Project> findByManager(HDBManager manager) {
+        return current.byManager().getOrDefault(manager, List.of());
+    }
+    /**
+     * Retrieves the bitset index used to search projects by neighbourhood, flat type and visibility.
+     *
+     * @return The search index.
+     */
+    public static ProjectSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
     /**
      * Replaces the current list of projects with a new list.
-     * 
+     *
      * @param projects The new list of projects to replace the current list.
      */
     public static void setAllProjects(List<Project> projects) {
-        allProjects.clear();
-        allProjects.addAll(projects);
+        synchronized (writeLock) {
+            current = Snapshot.of(new ArrayList<>(projects));
+            searchIndex.rebuild(current.projects());
+        }
+    }
+    /**
+     * Normalises a name or neighbourhood for case-insensitive lookup.
+     *
+     * @param value The name or neighbourhood.
+     * @return The lookup key.
+     */
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An immutable state of the repository: the projects in order and every index over them.
+     */
+    private record Snapshot(List<Project> projects, Map<Integer, Project> byId, Map<String, Project> byName,
+                            Map<String, List<Project>> byNeighbourhood, Map<HDBManager, List<Project>> byManager,
+                            int maxProjectId) {
+        /**
+         * Builds a snapshot and its indexes from a list of projects.
+         *
+         * @param projects The projects, in order. The list is not copied and must not be modified afterwards.
+         * @return The snapshot.
+         */
+        static Snapshot of(List<Project> projects) {
+            Map<Integer, Project> byId = new HashMap<>();
+            Map<String, Project> byName = new HashMap<>();
+            Map<String, List<Project>> byNeighbourhood = new HashMap<>();
+            Map<HDBManager, List<Project>> byManager = new IdentityHashMap<>();
+            int maxProjectId = 0;
+            for (Project project : projects) {
+                byId.putIfAbsent(project.getProjectID(), project);
+                maxProjectId = Math.max(maxProjectId, project.getProjectID());
+                if (project.getProjectName() != null) {
+                    byName.putIfAbsent(key(project.getProjectName()), project);
+                }
+                if (project.getNeighbourhood() != null) {
+                    byNeighbourhood.computeIfAbsent(key(project.getNeighbourhood()), k -> new ArrayList<>()).add(project);
+                }
+                if (project.getManager() != null) {
+                    byManager.computeIfAbsent(project.getManager(), k -> new ArrayList<>()).add(project);
+                }
+            }
+            byNeighbourhood.replaceAll((k, list) -> Collections.unmodifiableList(list));
+            byManager.replaceAll((k, list) -> Collections.unmodifiableList(list));
+            return new Snapshot(Collections.unmodifiableList(projects), byId, byName, byNeighbourhood, byManager,
+                    maxProjectId);
+        }
+        /**
+         * Checks whether a project of this snapshot can still be found under its current name, neighbourhood
+         * and manager.
+         *
+         * @param project A project of this snapshot.
+         * @return true if no lookup index needs to change for the project.
+         */
+        boolean isIndexedUnderCurrentKeys(Project project) {
+            boolean nameIndexed = project.getProjectName() == null
+                    || byName.get(key(project.getProjectName())) == project;
+            boolean neighbourhoodIndexed = project.getNeighbourhood() == null
+                    || byNeighbourhood.getOrDefault(key(project.getNeighbourhood()), List.of()).contains(project);
+            boolean managerIndexed = project.getManager() == null
+                    || byManager.getOrDefault(project.getManager(), List.of()).contains(project);
+            return nameIndexed && neighbourhoodIndexed && managerIndexed && byId.get(project.getProjectID()) == project;
+        }
+    }
+    /**
+     * The list returned by {@link #getAllProjects()}. Every method reads the snapshot current at the time of the call,
+     * so an iteration continues over the projects it started with even if the repository changes meanwhile.
+     */
+    private static class LiveView extends AbstractList<Project> {
+        @Override
+        public Project get(int index) {
+            return current.projects().get(index);
+        }
+        @Override
+        public int size() {
+            return current.projects().size();
+        }
+        @Override
+        public Iterator<Project> iterator() {
+            return current.projects().iterator();
+        }
+        @Override
+        public Spliterator<Project> spliterator() {
+            return current.projects().spliterator();
+        }
+        @Override
+        public void forEach(Consumer<? super Project> action) {
+            current.projects().forEach(action);
+        }
+        @Override
+        public boolean contains(Object o) {
+            return current.projects().contains(o);
+        }
+        @Override
+        public Object[] toArray() {
+            return current.projects().toArray();
+        }
     }
 }
@@ -0,0 +1,242 @@
+package data;
+
+import model.project.FlatType;
+import model.project.Project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+/**
+ * The ProjectSearchIndex class answers project searches by intersecting bitsets instead of checking every project.
+ * Each project occupies one bit position, in the order it was added; for every searchable attribute the index keeps
+ * the set of positions that have it:
+ * <ul>
+ *   <li>projects whose visibility is switched on,</li>
+ *   <li>projects in each neighbourhood (ignoring case),</li>
+ *   <li>projects offering each flat type, and projects with units of each flat type left.</li>
+ * </ul>
+ * A search combines the sets of its criteria and walks the resulting bits, so its cost depends on the number
+ * of matches rather than on the number of projects. The index is kept up to date by {@link ProjectRepository},
+ * which calls {@link #update(Project)} whenever a project is added or changed. Whether a project's application
+ * period is over depends on the date of the search, so it is not indexed; visible-only searches check it on the
+ * candidates that match everything else.
+ * <p>
+ * Searches may run concurrently with each other; updates take an exclusive lock.
+ */
+public class ProjectSearchIndex {
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Project[] projects = new Project[64];
+    private int positionCount;
+    private final Map<Project, Integer> positions = new IdentityHashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet visible = new BitSet();
+    private final Map<String, BitSet> byNeighbourhood = new HashMap<>();
+    private final BitSet[] offered = newBitSets();
+    private final BitSet[] available = newBitSets();
+    // The neighbourhood each position was indexed under, so that a change moves the bit out of the old set
+    private String[] neighbourhoods = new String[64];
+
+    /**
+     * Replaces the contents of the index with the given projects, in order.
+     *
+     * @param allProjects All projects in the system.
+     */
+    public void rebuild(List<Project> allProjects) {
+        lock.writeLock().lock();
+        try {
+            projects = new Project[Math.max(64, allProjects.size())];
+            neighbourhoods = new String[projects.length];
+            positionCount = 0;
+            positions.clear();
+            live.clear();
+            visible.clear();
+            byNeighbourhood.clear();
+            for (FlatType type : FLAT_TYPES) {
+                offered[type.ordinal()].clear();
+                available[type.ordinal()].clear();
+            }
+            for (Project project : allProjects) {
+                index(project);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    /**
+     * Adds a project to the index, or re-reads the searchable attributes of a project already in it.
+     * Must be called after a project's visibility, neighbourhood, flat types or unit counts change.
+     *
+     * @param project The added or changed project.
+     */
+    public void update(Project project) {
+        lock.writeLock().lock();
+        try {
+            index(project);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    /**
+     * Removes a project from the index.
+     *
+     * @param project The removed project.
+     */
+    public void remove(Project project) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positions.remove(project);
+            if (position == null) {
+                return;
+            }
+            clearBits(position);
+            projects[position] = null;
+            // Positions are never reused, so compact once removed projects make up most of the index
+            if (positionCount > 64 && positions.size() < positionCount / 2) {
+                List<Project> remaining = new ArrayList<>(positions.size());
+                for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+                    remaining.add(projects[i]);
+                }
+                rebuild(remaining); // The write lock is reentrant
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    /**
+     * Finds the projects matching a search, in the order they were added.
+     *
+     * @param neighbourhood The neighbourhood to match ignoring case, or null or empty for any neighbourhood.
+     * @param flatTypes The flat types of which at least one must match, or an empty set for any flat type.
+     * @param requireUnits Whether a flat type only matches if units of it are left, rather than merely offered.
+     * @param visibleOnly Whether hidden projects are excluded.
+     * @param alwaysIncluded A project that is included even if hidden, such as the one an applicant applied for,
+     *                       as long as it matches the other criteria; may be null.
+     * @return A new, modifiable list of the matching projects.
+     */
+    public List<Project> search(String neighbourhood, Set<FlatType> flatTypes, boolean requireUnits,
+                                boolean visibleOnly, Project alwaysIncluded) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (neighbourhood != null && !neighbourhood.isEmpty()) {
+                BitSet inNeighbourhood = byNeighbourhood.get(key(neighbourhood));
+                if (inNeighbourhood == null) {
+                    return new ArrayList<>();
+                }
+                matches.and(inNeighbourhood);
+            }
+            if (!flatTypes.isEmpty()) {
+                BitSet[] byType = requireUnits ? available : offered;
+                BitSet anyType = new BitSet();
+                for (FlatType type : flatTypes) {
+                    anyType.or(byType[type.ordinal()]);
+                }
+                matches.and(anyType);
+            }
+            Integer included = alwaysIncluded == null ? null : positions.get(alwaysIncluded);
+            int keep = included != null && matches.get(included) ? included : -1;
+            if (visibleOnly) {
+                matches.and(visible);
+                if (keep >= 0) {
+                    matches.set(keep);
+                }
+            }
+            List<Project> result = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                // The application period is checked against today's date, not the date the project was indexed
+                if (visibleOnly && i != keep && !projects[i].isVisible()) {
+                    continue;
+                }
+                result.add(projects[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    /**
+     * Sets the bits of a project, giving it a position first if it has none. Callers hold the write lock.
+     *
+     * @param project The project to index.
+     */
+    private void index(Project project) {
+        Integer existing = positions.get(project);
+        int position;
+        if (existing != null) {
+            position = existing;
+            clearBits(position);
+        } else {
+            position = positionCount++;
+            if (position == projects.length) {
+                projects = Arrays.copyOf(projects, position * 2);
+                neighbourhoods = Arrays.copyOf(neighbourhoods, position * 2);
+            }
+            projects[position] = project;
+            positions.put(project, position);
+        }
+        live.set(position);
+        visible.set(position, project.isVisibilityOn());
+        if (project.getNeighbourhood() != null) {
+            String neighbourhood = key(project.getNeighbourhood());
+            byNeighbourhood.computeIfAbsent(neighbourhood, k -> new BitSet()).set(position);
+            neighbourhoods[position] = neighbourhood;
+        }
+        for (FlatType type : project.getFlatUnits().keySet()) {
+            offered[type.ordinal()].set(position);
+            available[type.ordinal()].set(position, project.getNumUnits(type) > 0);
+        }
+    }
+    /**
+     * Clears every bit of a position. Callers hold the write lock.
+     *
+     * @param position The position of the project.
+     */
+    private void clearBits(int position) {
+        live.clear(position);
+        visible.clear(position);
+        String neighbourhood = neighbourhoods[position];
+        if (neighbourhood != null) {
+            BitSet inNeighbourhood = byNeighbourhood.get(neighbourhood);
+            inNeighbourhood.clear(position);
+            if (inNeighbourhood.isEmpty()) {
+                byNeighbourhood.remove(neighbourhood);
+            }
+            neighbourhoods[position] = null;
+        }
+        for (FlatType type : FLAT_TYPES) {
+            offered[type.ordinal()].clear(position);
+            available[type.ordinal()].clear(position);
+        }
+    }
+    /**
+     * Normalises a neighbourhood for case-insensitive matching.
+     *
+     * @param neighbourhood The neighbourhood.
+     * @return The lookup key.
+     */
+    private static String key(String neighbourhood) {
+        return neighbourhood.toLowerCase(Locale.ROOT);
+    }
+    /**
+     * Creates one empty bitset per flat type.
+     *
+     * @return The bitsets, indexed by flat type ordinal.
+     */
+    private static BitSet[] newBitSets() {
+        BitSet[] sets = new BitSet[FLAT_TYPES.length];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+}
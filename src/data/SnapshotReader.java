@@ -0,0 +1,330 @@
+package data;
+
+import model.project.FlatType;
+import model.project.Project;
+import model.transaction.ApplicationStatus;
+import model.user.Applicant;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * The SnapshotReader class loads projects, applications and enquiries from a binary snapshot written by
+ * {@link SnapshotWriter}. It builds and links the same objects as the CSV loader in {@link DataLoader},
+ * but without parsing text, numbers or dates.
+ */
+public class SnapshotReader {
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+    private static final ApplicationStatus[] STATUSES = ApplicationStatus.values();
+    private static final int DATE_CACHE_SIZE = 1 << 10;
+
+    private final ByteBuffer buffer;
+    private final EntityIndex index;
+    private String[] strings;
+    // Projects resolved by string table index, so each project name is looked up only once
+    private Project[] projectsByString;
+    // Recently decoded dates by epoch day; applications share few distinct dates and LocalDate is immutable
+    private final LocalDate[] dates = new LocalDate[DATE_CACHE_SIZE];
+
+    /**
+     * Constructs a SnapshotReader over the mapped contents of a snapshot file.
+     *
+     * @param buffer The snapshot contents.
+     * @param index The index used to resolve users and projects.
+     */
+    private SnapshotReader(ByteBuffer buffer, EntityIndex index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+    /**
+     * Checks whether a snapshot exists and is at least as new as every one of the given CSV files and delta logs,
+     * so that it reflects their current contents.
+     *
+     * @param snapshotPath The path to the snapshot file.
+     * @param csvPaths The paths to the CSV files the snapshot caches, and to their delta logs.
+     * @return true if the snapshot can be loaded in place of the CSV files.
+     */
+    public static boolean isFresh(String snapshotPath, String... csvPaths) {
+        File snapshot = new File(snapshotPath);
+        if (!snapshot.isFile()) {
+            return false;
+        }
+        for (String csvPath : csvPaths) {
+            File csv = new File(csvPath);
+            if (csv.exists() && csv.lastModified() > snapshot.lastModified()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Loads projects, applications and enquiries from a snapshot. Applications and enquiries are linked to their
+     * applicants and projects, and the loaded projects are added to the index.
+     * The header, string table, section lengths and every record are checked before any object is built or
+     * linked, so when an IOException is thrown the index and the loaded users are left untouched.
+     *
+     * @param filePath The path to the snapshot file.
+     * @param index The index holding all users in the system.
+     * @return A list of Projects loaded from the snapshot.
+     * @throws IOException If the snapshot cannot be read, is of another version, is truncated, or has a record
+     *                     that refers to a string or enum constant that does not exist.
+     */
+    public static List<Project> read(String filePath, EntityIndex index) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + filePath);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            SnapshotReader reader = new SnapshotReader(buffer, index);
+            try {
+                reader.readHeader();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Snapshot is truncated: " + filePath, e);
+            }
+            reader.validateRecords();
+            return reader.readRecords();
+        }
+    }
+    /**
+     * Reads the header and the string table at the end of the file, and checks that the record sections
+     * exactly fill the space before the string table.
+     *
+     * @throws IOException If the snapshot is of another version or its sections do not match their record counts.
+     */
+    private void readHeader() throws IOException {
+        if (buffer.getInt() != SnapshotWriter.MAGIC) {
+            throw new IOException("Not a snapshot file.");
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ".");
+        }
+        long stringTableOffset = buffer.getLong();
+        if (stringTableOffset < SnapshotWriter.HEADER_BYTES || stringTableOffset > buffer.limit()) {
+            throw new BufferUnderflowException();
+        }
+
+        buffer.position((int) stringTableOffset);
+        readStrings();
+        if (buffer.hasRemaining()) {
+            throw new IOException("Snapshot has trailing data.");
+        }
+
+        long position = SnapshotWriter.HEADER_BYTES;
+        for (int recordBytes : new int[] {SnapshotWriter.PROJECT_RECORD_BYTES,
+                SnapshotWriter.APPLICATION_RECORD_BYTES, SnapshotWriter.ENQUIRY_RECORD_BYTES}) {
+            int count = buffer.getInt((int) position);
+            if (count < 0) {
+                throw new IOException("Snapshot is corrupt.");
+            }
+            position += Integer.BYTES + (long) count * recordBytes;
+            if (position > stringTableOffset) {
+                throw new BufferUnderflowException();
+            }
+        }
+        if (position != stringTableOffset) {
+            throw new IOException("Snapshot sections do not match their record counts.");
+        }
+        buffer.position(SnapshotWriter.HEADER_BYTES);
+    }
+    /**
+     * Checks that every record refers only to strings in the string table and to existing enum constants, and
+     * that the strings every record needs are present, so that reading the records cannot fail halfway through
+     * linking them. The section lengths have already been checked against the record counts.
+     *
+     * @throws IOException If a record is corrupt.
+     */
+    private void validateRecords() throws IOException {
+        int position = SnapshotWriter.HEADER_BYTES;
+        int projectCount = buffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < projectCount; i++, position += SnapshotWriter.PROJECT_RECORD_BYTES) {
+            checkString(position, false);      // name
+            checkString(position + 4, true);   // neighbourhood
+            checkOrdinal(position + 8, FLAT_TYPES.length, true);
+            checkOrdinal(position + 21, FLAT_TYPES.length, true);
+            checkString(position + 42, false); // manager name
+            checkString(position + 50, false); // officer names
+        }
+        int applicationCount = buffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < applicationCount; i++, position += SnapshotWriter.APPLICATION_RECORD_BYTES) {
+            checkString(position, false);      // applicant NRIC
+            checkString(position + 4, false);  // project name
+            checkOrdinal(position + 8, FLAT_TYPES.length, false);
+            checkOrdinal(position + 9, STATUSES.length, false);
+        }
+        int enquiryCount = buffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < enquiryCount; i++, position += SnapshotWriter.ENQUIRY_RECORD_BYTES) {
+            checkString(position + 4, false);  // applicant NRIC
+            checkString(position + 8, false);  // project name
+            checkString(position + 12, true);  // message
+            checkString(position + 16, true);  // reply
+        }
+    }
+    /**
+     * Checks a string reference of a record.
+     *
+     * @param position The position of the reference in the snapshot.
+     * @param optional Whether the reference may be -1 for an absent value.
+     * @throws IOException If the reference is outside the string table, or absent when it is required.
+     */
+    private void checkString(int position, boolean optional) throws IOException {
+        int id = buffer.getInt(position);
+        if (id >= strings.length || id < (optional ? -1 : 0)) {
+            throw new IOException("Snapshot is corrupt: invalid string reference at byte " + position + ".");
+        }
+    }
+    /**
+     * Checks an enum ordinal of a record.
+     *
+     * @param position The position of the ordinal in the snapshot.
+     * @param count The number of constants of the enum.
+     * @param optional Whether the ordinal may be -1 for an absent value.
+     * @throws IOException If the ordinal does not belong to a constant, or is absent when it is required.
+     */
+    private void checkOrdinal(int position, int count, boolean optional) throws IOException {
+        byte ordinal = buffer.get(position);
+        if (ordinal >= count || ordinal < (optional ? -1 : 0)) {
+            throw new IOException("Snapshot is corrupt: invalid constant at byte " + position + ".");
+        }
+    }
+    /**
+     * Reads the record sections, building and linking projects, applications and enquiries.
+     *
+     * @return The loaded projects.
+     */
+    private List<Project> readRecords() {
+        int projectCount = buffer.getInt();
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            projects.add(readProject(i + 1));
+        }
+        index.addProjects(projects);
+        projectsByString = new Project[strings.length];
+
+        int applicationCount = buffer.getInt();
+        for (int i = 0; i < applicationCount; i++) {
+            Applicant applicant = index.findApplicant(string(buffer.getInt()));
+            Project project = project(buffer.getInt());
+            FlatType flatType = FLAT_TYPES[buffer.get()];
+            ApplicationStatus status = STATUSES[buffer.get()];
+            boolean withdrawalRequested = buffer.get() != 0;
+            LocalDate applicationDate = date(buffer.getInt());
+            DataLoader.linkApplication(applicant == null || project == null ? null
+                    : DataLoader.buildApplication(applicant, project, flatType, status, withdrawalRequested, applicationDate));
+        }
+
+        int enquiryCount = buffer.getInt();
+        for (int i = 0; i < enquiryCount; i++) {
+            int enquiryId = buffer.getInt();
+            Applicant applicant = index.findApplicant(string(buffer.getInt()));
+            Project project = project(buffer.getInt());
+            String message = string(buffer.getInt());
+            String reply = string(buffer.getInt());
+            DataLoader.linkEnquiry(enquiryId, applicant, project, message, reply == null ? "" : reply);
+        }
+        return projects;
+    }
+    /**
+     * Reads one project record and builds the project.
+     *
+     * @param projectId The ID to assign to the project.
+     * @return The built project.
+     */
+    private Project readProject(int projectId) {
+        String projectName = string(buffer.getInt());
+        String neighbourhood = string(buffer.getInt());
+        FlatType type1 = flatType(buffer.get());
+        int units1 = buffer.getInt();
+        double price1 = buffer.getDouble();
+        FlatType type2 = flatType(buffer.get());
+        int units2 = buffer.getInt();
+        double price2 = buffer.getDouble();
+        LocalDate openingDate = LocalDate.ofEpochDay(buffer.getInt());
+        LocalDate closingDate = LocalDate.ofEpochDay(buffer.getInt());
+        String managerName = string(buffer.getInt());
+        int maxOfficerSlots = buffer.getInt();
+        String officerNames = string(buffer.getInt());
+        return DataLoader.buildProject(projectId, projectName, neighbourhood, type1, units1, price1, type2, units2, price2,
+                openingDate, closingDate, managerName, maxOfficerSlots, officerNames, index);
+    }
+    /**
+     * Reads the string table.
+     */
+    private void readStrings() {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / Integer.BYTES) {
+            throw new BufferUnderflowException();
+        }
+        strings = new String[count];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+    /**
+     * Looks up a string in the string table.
+     *
+     * @param id The index of the string, or -1 for an absent value.
+     * @return The string, or null if absent.
+     */
+    private String string(int id) {
+        return id < 0 ? null : strings[id];
+    }
+    /**
+     * Resolves a project from the string table index of its name.
+     *
+     * @param id The index of the project name.
+     * @return The matching project, or null if none exists.
+     */
+    private Project project(int id) {
+        if (id < 0) {
+            return null;
+        }
+        Project project = projectsByString[id];
+        if (project == null) {
+            project = index.findProject(strings[id]);
+            projectsByString[id] = project;
+        }
+        return project;
+    }
+    /**
+     * Decodes an epoch day, reusing the LocalDate of an earlier record with the same date where possible.
+     *
+     * @param epochDay The number of days since 1970-01-01.
+     * @return The date.
+     */
+    private LocalDate date(int epochDay) {
+        int slot = epochDay & (DATE_CACHE_SIZE - 1);
+        LocalDate date = dates[slot];
+        if (date == null || date.toEpochDay() != epochDay) {
+            date = LocalDate.ofEpochDay(epochDay);
+            dates[slot] = date;
+        }
+        return date;
+    }
+    /**
+     * Decodes a flat type ordinal.
+     *
+     * @param ordinal The ordinal, or -1 if the project has no flat type in this slot.
+     * @return The flat type, or null.
+     */
+    private static FlatType flatType(byte ordinal) {
+        return ordinal < 0 ? null : FLAT_TYPES[ordinal];
+    }
+}
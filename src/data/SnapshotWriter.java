@@ -0,0 +1,267 @@
+package data;
+
+import model.project.FlatType;
+import model.project.Project;
+import model.transaction.Application;
+import model.transaction.Enquiry;
+import model.user.HDBOfficer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+/**
+ * The SnapshotWriter class writes projects, applications and enquiries to a compact binary snapshot that
+ * {@link SnapshotReader} loads much faster than the equivalent CSV files. The CSV files remain the interchange
+ * format; the snapshot only caches what they contain.
+ * <p>
+ * The file starts with a magic number, a version and the offset of the string table, followed by three sections
+ * of fixed-width, big-endian records, each preceded by its record count. The string table at the end holds every
+ * distinct string (names, NRICs, neighbourhoods, project names, messages) once, as a length-prefixed UTF-8
+ * sequence. Records refer to strings by their index in the table, with -1 standing for an absent value;
+ * dates are stored as epoch days and enums as their ordinal.
+ * <pre>
+ * project (54 bytes):     name, neighbourhood, type1, units1, price1, type2, units2, price2,
+ *                         opening date, closing date, manager name, officer slots, officer names
+ * application (15 bytes): applicant NRIC, project name, flat type, status, withdrawal requested, date
+ * enquiry (20 bytes):     enquiry ID, applicant NRIC, project name, message, reply
+ * </pre>
+ * Records are streamed straight to the file while the string table is built, so writing a snapshot allocates
+ * little beyond the table itself.
+ */
+public class SnapshotWriter {
+    /** The magic number identifying a snapshot file ("HDBS"). */
+    static final int MAGIC = 0x48444253;
+    /** The current format version; snapshots of another version are ignored. */
+    static final int VERSION = 1;
+    /** Size of the header: magic number, version and string table offset. */
+    static final int HEADER_BYTES = 16;
+    // Sizes of the fixed-width records, used by the reader to validate section lengths
+    static final int PROJECT_RECORD_BYTES = 54;
+    static final int APPLICATION_RECORD_BYTES = 15;
+    static final int ENQUIRY_RECORD_BYTES = 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    // Open-addressing hash table from string to its index, avoiding an entry object per distinct string
+    private String[] slots = new String[1 << 10];
+    private int[] slotIds = new int[1 << 10];
+    private String[] strings = new String[1 << 9];
+    private int stringCount;
+
+    /**
+     * Constructs a SnapshotWriter writing to the given channel. Each writer is used for a single snapshot.
+     *
+     * @param channel The channel of the snapshot file, positioned at its start.
+     */
+    private SnapshotWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+    /**
+     * Writes a snapshot of the given projects and their applications and enquiries. The snapshot is written
+     * to a temporary file first and then moved into place, so readers never see a partial snapshot.
+     *
+     * @param filePath The path to the snapshot file.
+     * @param projects All projects in the system.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static void write(String filePath, List<Project> projects) throws IOException {
+        DataSaver.ensureDirectoryExists(filePath);
+        Path temp = Path.of(filePath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new SnapshotWriter(channel).writeSnapshot(projects);
+            channel.force(true);
+        }
+        DataSaver.moveAtomically(temp, Path.of(filePath));
+    }
+    /**
+     * Writes the header, the record sections and the string table, then fills in the string table offset.
+     *
+     * @param projects All projects in the system.
+     * @throws IOException If writing fails.
+     */
+    private void writeSnapshot(List<Project> projects) throws IOException {
+        int applicationCount = 0;
+        int enquiryCount = 0;
+        for (Project project : projects) {
+            applicationCount += project.getApplications().size();
+            enquiryCount += project.getEnquiries().size();
+        }
+
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(0); // The string table offset is filled in last
+
+        buffer.putInt(projects.size());
+        for (Project project : projects) {
+            writeProject(project);
+        }
+
+        ensureRoom(Integer.BYTES);
+        buffer.putInt(applicationCount);
+        for (Project project : projects) {
+            for (Application app : project.getApplications()) {
+                ensureRoom(APPLICATION_RECORD_BYTES);
+                buffer.putInt(intern(app.getApplicant().getNric()));
+                buffer.putInt(intern(app.getProject().getProjectName()));
+                buffer.put((byte) app.getFlatType().ordinal());
+                buffer.put((byte) app.getStatus().ordinal());
+                buffer.put((byte) (app.isWithdrawalRequested() ? 1 : 0));
+                buffer.putInt((int) app.getApplicationDate().toEpochDay());
+            }
+        }
+
+        ensureRoom(Integer.BYTES);
+        buffer.putInt(enquiryCount);
+        for (Project project : projects) {
+            for (Enquiry enquiry : project.getEnquiries()) {
+                ensureRoom(ENQUIRY_RECORD_BYTES);
+                buffer.putInt(enquiry.getEnquiryId());
+                buffer.putInt(intern(enquiry.getApplicant().getNric()));
+                buffer.putInt(intern(enquiry.getProject().getProjectName()));
+                buffer.putInt(intern(enquiry.getEnquiryMessage()));
+                buffer.putInt(intern(enquiry.getReplyMessage()));
+            }
+        }
+
+        flush();
+        long stringTableOffset = channel.position();
+        writeStrings();
+        flush();
+        channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, stringTableOffset), 8);
+    }
+    /**
+     * Encodes one project record, with the same values the projects CSV holds.
+     *
+     * @param project The project to encode.
+     * @throws IOException If flushing the buffer fails.
+     */
+    private void writeProject(Project project) throws IOException {
+        FlatType[] types = project.getFlatUnits().keySet().toArray(new FlatType[0]);
+        StringJoiner officerNames = new StringJoiner(",");
+        for (HDBOfficer officer : project.getOfficers()) {
+            officerNames.add(officer.getName());
+        }
+
+        ensureRoom(PROJECT_RECORD_BYTES);
+        buffer.putInt(intern(project.getProjectName()));
+        buffer.putInt(intern(project.getNeighbourhood()));
+        for (int i = 0; i < 2; i++) {
+            FlatType type = i < types.length ? types[i] : null;
+            buffer.put((byte) (type == null ? -1 : type.ordinal()));
+            buffer.putInt(type == null ? 0 : project.getNumUnits(type));
+            buffer.putDouble(type == null ? 0.0 : project.getFlatPrice(type));
+        }
+        buffer.putInt((int) project.getApplicationStartDate().toEpochDay());
+        buffer.putInt((int) project.getApplicationEndDate().toEpochDay());
+        buffer.putInt(intern(project.getManager() != null ? project.getManager().getName() : ""));
+        buffer.putInt(project.getMaxOfficerSlots());
+        buffer.putInt(intern(officerNames.toString()));
+    }
+    /**
+     * Writes the string table in index order.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void writeStrings() throws IOException {
+        ensureRoom(Integer.BYTES);
+        buffer.putInt(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = strings[i].getBytes(StandardCharsets.UTF_8);
+            ensureRoom(Integer.BYTES);
+            buffer.putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+    }
+    /**
+     * Returns the index of a string in the string table, adding it if it is not there yet.
+     *
+     * @param value The string, or null.
+     * @return The index of the string, or -1 for null.
+     */
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        while (slots[slot] != null) {
+            if (slots[slot].equals(value)) {
+                return slotIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = value;
+        slots[slot] = value;
+        slotIds[slot] = stringCount;
+        if (++stringCount * 2 > slots.length) {
+            rehash();
+        }
+        return stringCount - 1;
+    }
+    /**
+     * Doubles the hash table and reinserts every string.
+     */
+    private void rehash() {
+        slots = new String[slots.length * 2];
+        slotIds = new int[slots.length];
+        int mask = slots.length - 1;
+        for (int id = 0; id < stringCount; id++) {
+            int slot = spread(strings[id].hashCode()) & mask;
+            while (slots[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = strings[id];
+            slotIds[slot] = id;
+        }
+    }
+    /**
+     * Scrambles a string hash code so that similar strings, such as consecutive NRICs, do not fill
+     * neighbouring slots of the open-addressing table.
+     *
+     * @param hash The string hash code.
+     * @return The scrambled hash.
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    /**
+     * Flushes the buffer if it has less than the given number of bytes free.
+     *
+     * @param bytes The number of bytes about to be written.
+     * @throws IOException If flushing fails.
+     */
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+    /**
+     * Writes the buffered bytes to the file.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
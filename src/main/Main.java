@@ -1,23 +1,20 @@
 package main;
 
-import data.DataLoader;
+import data.DataBootstrap;
+import data.IncrementalSaver;
+import data.Journal;
 import data.ProjectRepository;
-import model.project.Project;
-import model.user.Applicant;
-import model.user.HDBOfficer;
-import model.user.HDBManager;
-import model.user.User;
 import ui.MainMenu;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 /**
  * The Main class serves as the entry point for the application.
  * It is responsible for loading data, initializing users and projects, 
  * and launching the main menu interface for the user.
  */
 public class Main {
+    /** Write-ahead journal of the changes made since the data files were last saved. */
+    private static final String JOURNAL_FILE = "src/data/journal.log";
     
     /**
      * The main method is the entry point of the program.
@@ -27,31 +24,34 @@ public class Main {
      * @param args Command-line arguments passed to the program (not used).
      */
     public static void main(String[] args) {
-        List<Applicant> applicants;
-        List<HDBOfficer> officers;
-        List<Project> projects;
-        List<HDBManager> managers;
-        List<User> allUsers = new ArrayList<>();
-
-        DataLoader dataLoader = new DataLoader();
+        DataBootstrap bootstrap = new DataBootstrap("src/data/");
 
         try {
-            applicants = dataLoader.loadApplicants("src/data/ApplicantList.csv");
-            officers = dataLoader.loadOfficers("src/data/OfficerList.csv");
-            managers = dataLoader.loadHDBManagers("src/data/ManagerList.csv");
-            projects = DataLoader.loadProjects("src/data/ProjectList.csv", officers, managers);
-            ProjectRepository.setAllProjects(projects);
-            allUsers.addAll(applicants); 
-            allUsers.addAll(officers);
-            allUsers.addAll(managers);
-            dataLoader.loadApplications("src/data/ApplicationList.csv", allUsers, projects);
-            dataLoader.loadEnquiries("src/data/EnquiryList.csv", allUsers, projects);
+            bootstrap.load();
         } catch (IOException e) {
             System.out.println("Failed to load data files.");
             e.printStackTrace();
             return;
         }
+        bootstrap.printTimings();
+
+        // Only records changed during this session are written back on exit
+        IncrementalSaver saver = new IncrementalSaver("src/data/");
+        saver.markSaved(bootstrap.getProjects());
+
+        // Recover changes from a session that ended without saving, then journal this session's changes
+        try {
+            int recovered = Journal.replay(JOURNAL_FILE, bootstrap.getIndex());
+            if (recovered > 0) {
+                System.out.println("Recovered " + recovered + " unsaved changes from the journal.");
+            }
+            Journal.open(JOURNAL_FILE);
+        } catch (IOException e) {
+            System.out.println("Failed to open the journal; changes will only be saved on exit.");
+        }
+        // Indexed only now, so that the indexes include the recovered changes
+        ProjectRepository.setAllProjects(bootstrap.getProjects());
 
-        new MainMenu(allUsers).show();
+        new MainMenu(bootstrap.getAllUsers(), saver).show();
     }
 }
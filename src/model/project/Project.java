@@ -2,10 +2,17 @@ package model.project;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
 
 import model.transaction.Enquiry;
 import model.transaction.Application;
@@ -17,14 +24,29 @@ import model.user.HDBManager;
  * It contains details about the project such as the project name, neighbourhood, available flat units, 
  * flat prices, application periods, assigned officers, and more. This class also manages the application,
  * officer, and enquiry data related to the project.
+ * <p>
+ * The remaining units and the price of each flat type are kept in small arrays indexed by the flat type's
+ * ordinal, with one bit per ordinal recording which types are offered and which are priced, so reading them
+ * involves no hashing, boxing or map lookups. The maps returned by {@link #getFlatUnits()} and
+ * {@link #getFlatPrices()} are read-only views over these arrays.
+ * <p>
+ * The remaining units are updated atomically, so several officers can book and managers can release units
+ * concurrently without overselling: {@link #tryReserve(FlatType)} only takes a unit that is still there.
+ * The flat types themselves are set up with the project and are not expected to change while units are
+ * being booked.
  */
 public class Project {
 
     private int projectID;
     private String projectName;
     private String neighbourhood;
-    private Map<FlatType, Integer> flatUnits;  // Track number of units directly
-    private Map<FlatType, Double> flatPrices; // Track prices of units
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+    private final AtomicIntegerArray flatUnits;  // Remaining units of each flat type, by ordinal
+    private final double[] flatPrices; // Price of each flat type, by ordinal
+    private volatile int offeredTypes; // One bit per ordinal of the flat types the project offers
+    private volatile int pricedTypes; // One bit per ordinal of the flat types with a price
+    private final Map<FlatType, Integer> flatUnitsView;
+    private final Map<FlatType, Double> flatPricesView;
     private LocalDate applicationStartDate;
     private LocalDate applicationEndDate;
     private boolean visibility;
@@ -35,6 +57,10 @@ public class Project {
     private List<HDBOfficer> officers;
     private List<Enquiry> enquiries;
     private HDBManager manager;
+    // Set whenever a persisted attribute changes, cleared once the change has been saved
+    private volatile boolean dirty;
+    // Incremented whenever a persisted attribute changes, so that derived values can tell they are stale
+    private final AtomicInteger version = new AtomicInteger();
 
     /**
      * Constructs a new {@code Project} with the specified project name, neighbourhood,
@@ -53,11 +79,14 @@ public class Project {
         this.applicationEndDate = applicationEndDate;
         this.maxOfficerSlots = maxOfficerSlots;
         this.visibility = true;
-        this.flatUnits = new HashMap<>();
-        this.flatPrices = new HashMap<>();
+        this.flatUnits = new AtomicIntegerArray(FLAT_TYPES.length);
+        this.flatPrices = new double[FLAT_TYPES.length];
+        this.flatUnitsView = new FlatTypeView<>(true, flatUnits::get);
+        this.flatPricesView = new FlatTypeView<>(false, ordinal -> flatPrices[ordinal]);
         this.applications = new ArrayList<>();
         this.officers = new ArrayList<>();
         this.enquiries = new ArrayList<>();
+        this.dirty = true;
     }
 
     
@@ -70,7 +99,9 @@ public class Project {
      * @param units the number of units available for the flat type
      */
     public void addFlatUnit(FlatType type, int units) {
-        flatUnits.put(type, units);
+        flatUnits.set(type.ordinal(), units);
+        offer(type);
+        markDirty();
     }
 
     /**
@@ -80,7 +111,8 @@ public class Project {
      * @param price the price of the flat type
      */
     public void addFlatPrice(FlatType type, double price) {
-        flatPrices.put(type, price);
+        storePrice(type, price);
+        markDirty();
     }
 
     /**
@@ -90,6 +122,7 @@ public class Project {
      */
     public void addOfficer(HDBOfficer officer) {
         officers.add(officer);
+        markDirty();
     }
 
     /**
@@ -128,6 +161,10 @@ public class Project {
      */
     public void setProjectName(String projectName) {
         this.projectName = projectName;
+        markDirty();
+        // Applications and enquiries are saved with the project name, so they change too
+        applications.forEach(Application::markDirty);
+        enquiries.forEach(Enquiry::markDirty);
     }
 
     /**
@@ -137,6 +174,7 @@ public class Project {
      */
     public void setNeighbourhood(String neighbourhood) {
         this.neighbourhood = neighbourhood;
+        markDirty();
     }
 
     /**
@@ -146,7 +184,9 @@ public class Project {
      * @param units the number of units to be set
      */
     public void setNumUnits(FlatType type, int units) {
-        flatUnits.put(type, units);
+        flatUnits.set(type.ordinal(), units);
+        offer(type);
+        markDirty();
     }
 
     /**
@@ -156,7 +196,8 @@ public class Project {
      * @param price the price to be set
      */
     public void setFlatPrice(FlatType type, double price) {
-        flatPrices.put(type, price);
+        storePrice(type, price);
+        markDirty();
     }
 
     /**
@@ -168,6 +209,7 @@ public class Project {
     public void setApplicationPeriod(LocalDate startDate, LocalDate endDate) {
         this.applicationStartDate = startDate;
         this.applicationEndDate = endDate;
+        markDirty();
     }
 
     /**
@@ -177,6 +219,7 @@ public class Project {
      */
     public void setVisible(boolean visibility) {
         this.visibility = visibility;
+        markDirty();
     }
 
     /**
@@ -186,6 +229,7 @@ public class Project {
      */
     public void setManager(HDBManager manager) {
         this.manager = manager;
+        markDirty();
     }
 
     /**
@@ -195,6 +239,7 @@ public class Project {
      */
     public void setMaxOfficerSlots(int maxOfficerSlots) {
         this.maxOfficerSlots = maxOfficerSlots;
+        markDirty();
     }
 
     // Getters
@@ -233,25 +278,57 @@ public class Project {
      * @return the number of available units
      */
     public int getNumUnits(FlatType type) {
-        return flatUnits.getOrDefault(type, 0);
+        return flatUnits.get(type.ordinal());
     }
 
     /**
      * Gets the map of all available flat units for the project.
      * 
-     * @return a map of flat types and their respective unit counts
+     * @return a read-only map of flat types and their respective unit counts, which reflects later changes
      */
     public Map<FlatType, Integer> getFlatUnits() {
-        return flatUnits;
+        return flatUnitsView;
+    }
+
+    /**
+     * Takes one unit of a flat type, if any is left. The check and the decrement are a single atomic step,
+     * so concurrent bookings never take more units than there are.
+     * 
+     * @param type the flat type to reserve a unit of
+     * @return {@code true} if a unit was reserved; {@code false} if the project has no units of the type left
+     */
+    public boolean tryReserve(FlatType type) {
+        // Types the project does not offer have no units, so they are never reserved
+        int ordinal = type.ordinal();
+        int remaining;
+        do {
+            remaining = flatUnits.get(ordinal);
+            if (remaining <= 0) {
+                return false;
+            }
+        } while (!flatUnits.compareAndSet(ordinal, remaining, remaining - 1));
+        markDirty();
+        return true;
+    }
+
+    /**
+     * Returns one unit of a flat type, for example when a booking is withdrawn.
+     * 
+     * @param type the flat type to release a unit of
+     */
+    public void release(FlatType type) {
+        flatUnits.incrementAndGet(type.ordinal());
+        offer(type);
+        markDirty();
     }
 
     /**
      * Gets the map of all flat prices for the project.
      * 
-     * @return a map of flat types and their respective prices
+     * @return a read-only map of flat types and their respective prices, which reflects later changes
      */
     public Map<FlatType, Double> getFlatPrices() {
-        return flatPrices;
+        return flatPricesView;
     }
 
     /**
@@ -261,7 +338,7 @@ public class Project {
      * @return the price of the flat type
      */
     public double getFlatPrice(FlatType type) {
-        return flatPrices.getOrDefault(type, 0.0);
+        return flatPrices[type.ordinal()];
     }
 
     /**
@@ -282,6 +359,15 @@ public class Project {
         return applicationEndDate;
     }
 
+    /**
+     * Checks if the project's visibility is switched on, regardless of its application period.
+     * 
+     * @return {@code true} if the project's visibility is on, {@code false} otherwise
+     */
+    public boolean isVisibilityOn() {
+        return visibility;
+    }
+
     /**
      * Checks if the project is visible (based on its visibility and application period).
      * 
@@ -424,15 +510,47 @@ public class Project {
      * @param flatType the flat type for which the remaining flats should be decremented
      */
     public void decreaseRemainingFlats(FlatType flatType) {
-        if (flatUnits.containsKey(flatType) && flatUnits.get(flatType) > 0) {
-            int remainingFlats = flatUnits.get(flatType);
-            flatUnits.put(flatType, remainingFlats - 1); // Decrement available flats
-            System.out.println("One flat of type " + flatType + " has been booked. Remaining flats: " + (remainingFlats - 1));
+        if (tryReserve(flatType)) {
+            System.out.println("One flat of type " + flatType + " has been booked. Remaining flats: " + getNumUnits(flatType));
         } else {
             System.out.println("No flats available for type " + flatType + " in this project.");
         }
     }
 
+    /**
+     * Checks if the project has changes that have not been saved yet.
+     * 
+     * @return {@code true} if the project was created or modified since it was last saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks the project as changed so that it is included in the next save.
+     */
+    public void markDirty() {
+        this.dirty = true;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the version of the project, which changes whenever one of its persisted attributes changes,
+     * including its flat units, prices and visibility.
+     * 
+     * @return the current version
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Marks the project as saved.
+     */
+    public void clearDirty() {
+        this.dirty = false;
+    }
+
     /**
      * Parses a date string in the format "yyyy-MM-dd" into a {@code LocalDate} object.
      * 
@@ -463,4 +581,94 @@ public class Project {
                 "\nAvailable Officer Slots: " + maxOfficerSlots;
     }
 
+    /**
+     * Records that the project offers a flat type.
+     * 
+     * @param type the flat type
+     */
+    private synchronized void offer(FlatType type) {
+        offeredTypes |= 1 << type.ordinal();
+    }
+
+    /**
+     * Stores the price of a flat type. The price is written before the type is marked as priced, so a
+     * thread that sees the mark also sees the price.
+     * 
+     * @param type the flat type
+     * @param price the price of the flat type
+     */
+    private synchronized void storePrice(FlatType type, double price) {
+        flatPrices[type.ordinal()] = price;
+        pricedTypes |= 1 << type.ordinal();
+    }
+
+    /**
+     * The read-only views returned by {@link #getFlatUnits()} and {@link #getFlatPrices()}, holding the flat
+     * types whose bit is set in {@link #offeredTypes} or {@link #pricedTypes}, in the order of their ordinals.
+     * 
+     * @param <V> the type of the values
+     */
+    private class FlatTypeView<V> extends AbstractMap<FlatType, V> {
+        private final boolean units;
+        private final IntFunction<V> values;
+
+        FlatTypeView(boolean units, IntFunction<V> values) {
+            this.units = units;
+            this.values = values;
+        }
+
+        private int types() {
+            return units ? offeredTypes : pricedTypes;
+        }
+
+        private boolean contains(int types, Object key) {
+            return key instanceof FlatType && (types & (1 << ((FlatType) key).ordinal())) != 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            return contains(types(), key) ? values.apply(((FlatType) key).ordinal()) : null;
+        }
+        @Override
+        public boolean containsKey(Object key) {
+            return contains(types(), key);
+        }
+        @Override
+        public int size() {
+            return Integer.bitCount(types());
+        }
+        @Override
+        public boolean isEmpty() {
+            return types() == 0;
+        }
+        @Override
+        public Set<Entry<FlatType, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<FlatType, V>> iterator() {
+                    return new Iterator<>() {
+                        private int remaining = types();
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+                        @Override
+                        public Entry<FlatType, V> next() {
+                            if (remaining == 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int ordinal = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new SimpleImmutableEntry<>(FLAT_TYPES[ordinal], values.apply(ordinal));
+                        }
+                    };
+                }
+                @Override
+                public int size() {
+                    return Integer.bitCount(types());
+                }
+            };
+        }
+    }
 }
@@ -33,6 +33,9 @@ public class Application {
     /** The date when the application was submitted. */
     private LocalDate applicationDate;
 
+    /** Flag indicating whether the application has changed since it was last saved. */
+    private boolean dirty;
+
     /**
      * Constructs an {@code Application} object with the provided applicant, project, and flat type.
      * The status is set to {@code PENDING}, and the withdrawal flag is set to {@code false}.
@@ -49,6 +52,7 @@ public class Application {
         this.status = ApplicationStatus.PENDING;
         this.withdrawalRequested = false;
         this.applicationDate = LocalDate.now();
+        this.dirty = true;
     }
 
     /**
@@ -94,6 +98,7 @@ public class Application {
      */
     public void setApplicationDate(LocalDate applicationDate) {
         this.applicationDate = applicationDate;
+        markDirty();
     }
 
     /**
@@ -103,6 +108,7 @@ public class Application {
      */
     public void setWithdrawalRequested(Boolean withdrawalRequested) {
         this.withdrawalRequested = withdrawalRequested;
+        markDirty();
     }
 
     /**
@@ -112,6 +118,7 @@ public class Application {
      */
     public void setStatus(String status) {
         this.status = ApplicationStatus.valueOf(status.toUpperCase());
+        markDirty();
     }
 
     /**
@@ -119,6 +126,7 @@ public class Application {
      */
     public void approve() {
         this.status = ApplicationStatus.SUCCESSFUL;
+        markDirty();
     }
 
     /**
@@ -126,6 +134,7 @@ public class Application {
      */
     public void reject() {
         this.status = ApplicationStatus.UNSUCCESSFUL;
+        markDirty();
     }
 
     /**
@@ -135,6 +144,7 @@ public class Application {
     public void withdraw() {
         this.withdrawalRequested = false;
         this.status = ApplicationStatus.UNSUCCESSFUL;
+        markDirty();
     }
 
     /**
@@ -142,6 +152,7 @@ public class Application {
      */
     public void cancelWithdrawalRequest() {
         this.withdrawalRequested = false;
+        markDirty();
     }
 
     /**
@@ -158,6 +169,7 @@ public class Application {
      */
     public void requestWithdrawal() {
         this.withdrawalRequested = true;
+        markDirty();
     }
 
     /**
@@ -176,5 +188,29 @@ public class Application {
      */
     public void setStatus(ApplicationStatus status) {
         this.status = status;
+        markDirty();
+    }
+
+    /**
+     * Returns whether this application has changes that have not been saved yet.
+     * 
+     * @return {@code true} if the application was created or modified since it was last saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks this application as changed so that it is included in the next save.
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Marks this application as saved.
+     */
+    public void clearDirty() {
+        this.dirty = false;
     }
 }
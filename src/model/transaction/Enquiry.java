@@ -21,6 +21,7 @@ public class Enquiry {
     private boolean isReplied;
     private Project project;
     private Applicant applicant;
+    private boolean isDirty;
 
     /**
      * Constructor to create a new enquiry.
@@ -36,6 +37,7 @@ public class Enquiry {
         this.isReplied = false; // Initially, no reply
         this.project = project;
         this.applicant = applicant;
+        this.isDirty = true; // New enquiries have not been saved yet
     }
 
     /**
@@ -55,6 +57,7 @@ public class Enquiry {
      */
     public String setEnquiryMessage(String enquiryMessage) {
         this.enquiryMessage = enquiryMessage;
+        this.isDirty = true;
         return this.enquiryMessage;
     }
 
@@ -111,6 +114,30 @@ public class Enquiry {
     public void setReply(String replyMessage) {
         this.replyMessage = replyMessage;
         this.isReplied = true;
+        this.isDirty = true;
+    }
+
+    /**
+     * Checks whether the enquiry has changes that have not been saved yet.
+     * 
+     * @return {@code true} if the enquiry was created or modified since it was last saved, otherwise {@code false}.
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /**
+     * Marks the enquiry as changed so that it is included in the next save.
+     */
+    public void markDirty() {
+        this.isDirty = true;
+    }
+
+    /**
+     * Marks the enquiry as saved.
+     */
+    public void clearDirty() {
+        this.isDirty = false;
     }
 
     /**
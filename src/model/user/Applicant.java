@@ -14,6 +14,11 @@ import java.util.List;
  * Handles application submission, withdrawal eligibility, and enquiry management.
  */
 public class Applicant extends User {
+    /** The minimum age at which married applicants may apply for any flat type. */
+    public static final int MIN_AGE_MARRIED = 21;
+    /** The minimum age at which single applicants may apply for a two-room flat. */
+    public static final int MIN_AGE_SINGLE = 35;
+
     private Application application = null;
     private List<Enquiry> enquiries;
 
@@ -85,9 +90,9 @@ public class Applicant extends User {
         if (unitsAvailable < 0) return false;
         switch (getMaritalStatus()) {
             case MARRIED:
-                return getAge() >= 21;
+                return getAge() >= MIN_AGE_MARRIED;
             case SINGLE:
-                return getAge() >= 35 && type == FlatType.TWO_ROOM;
+                return getAge() >= MIN_AGE_SINGLE && type == FlatType.TWO_ROOM;
             default:
                 return false;
         }
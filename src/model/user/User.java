@@ -70,18 +70,19 @@ public abstract class User {
     }
 
     /**
-     * Gets the user's password.
+     * Gets the user's stored password. This is an encoded hash, or the plaintext password for users
+     * who have not logged in since passwords were first hashed.
      *
-     * @return the user's password
+     * @return the user's stored password
      */
     public String getPassword() {
         return password;
     }
 
     /**
-     * Sets the user's password.
+     * Sets the user's stored password.
      *
-     * @param password the new password
+     * @param password the new stored password, normally a hash produced by a {@code PasswordHasher}
      */
     public void setPassword(String password) {
         this.password = password;
@@ -129,7 +130,10 @@ public abstract class User {
      * @param inputNric the input NRIC
      * @param inputPassword the input password
      * @return true if credentials match; false otherwise
+     * @deprecated Compares against the stored password as plaintext, which fails once the password is hashed;
+     *             use {@code UserService.authenticate} instead.
      */
+    @Deprecated
     public boolean login(String inputNric, String inputPassword) {
         return this.nric.equals(inputNric) && this.password.equals(inputPassword);
     }
@@ -1,5 +1,6 @@
 package service;
 
+import data.Journal;
 import model.project.FlatType;
 import model.project.Project;
 import model.transaction.Application;
@@ -43,6 +44,7 @@ public class ApplicationService {
         Application app = new Application(applicant, project, flatType);
         applicant.setApplication(app);
         project.addApplication(app);
+        Journal.record(Journal.Op.APPLY, applicant.getNric(), project.getProjectName(), flatType, app.getApplicationDate());
         return app;
     }
 
@@ -58,6 +60,7 @@ public class ApplicationService {
         }
 
         applicant.getApplication().requestWithdrawal();
+        Journal.record(Journal.Op.REQUEST_WITHDRAWAL, applicant.getNric());
     }
 
     /**
@@ -0,0 +1,80 @@
+package service;
+
+/**
+ * The BallotResult class summarises one run of {@link BallotService#runBallot(java.util.List)}: how many pending
+ * applications were balloted, how they were decided, and how long the run took.
+ */
+public class BallotResult {
+    private final long seed;
+    private final int ballotCount;
+    private final int successfulCount;
+    private final int unsuccessfulCount;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a result.
+     *
+     * @param seed The seed the ballot was drawn with.
+     * @param ballotCount The number of project and flat type pairs that had pending applications.
+     * @param successfulCount The number of applications that became SUCCESSFUL.
+     * @param unsuccessfulCount The number of applications that became UNSUCCESSFUL.
+     * @param elapsedNanos The time the run took, in nanoseconds.
+     */
+    public BallotResult(long seed, int ballotCount, int successfulCount, int unsuccessfulCount, long elapsedNanos) {
+        this.seed = seed;
+        this.ballotCount = ballotCount;
+        this.successfulCount = successfulCount;
+        this.unsuccessfulCount = unsuccessfulCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+    /**
+     * Gets the seed the ballot was drawn with; running the ballot again with it on the same applications gives
+     * the same outcome.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+    /**
+     * Gets the number of separate ballots drawn, one per project and flat type with pending applications.
+     *
+     * @return The number of ballots.
+     */
+    public int getBallotCount() {
+        return ballotCount;
+    }
+    /**
+     * Gets the number of applications that became SUCCESSFUL.
+     *
+     * @return The number of successful applications.
+     */
+    public int getSuccessfulCount() {
+        return successfulCount;
+    }
+    /**
+     * Gets the number of applications that became UNSUCCESSFUL.
+     *
+     * @return The number of unsuccessful applications.
+     */
+    public int getUnsuccessfulCount() {
+        return unsuccessfulCount;
+    }
+    /**
+     * Gets the time the run took, including journalling the decisions.
+     *
+     * @return The elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    /**
+     * Gets the number of applications decided per second.
+     *
+     * @return The throughput of the run, or 0 if no application was decided.
+     */
+    public double getApplicationsPerSecond() {
+        int decided = successfulCount + unsuccessfulCount;
+        return decided == 0 ? 0 : decided * 1e9 / Math.max(1, elapsedNanos);
+    }
+}
@@ -0,0 +1,185 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import data.Journal;
+import model.project.FlatType;
+import model.project.Project;
+import model.transaction.Application;
+import model.transaction.ApplicationStatus;
+
+/**
+ * Service class that decides the pending applications of oversubscribed projects by ballot. For each project
+ * and flat type, the pending applications are put in a random order, the first ones up to the number of units
+ * still available become SUCCESSFUL, and the rest become UNSUCCESSFUL, all in one pass.
+ * <p>
+ * The units available to a ballot are the project's remaining units of the flat type less the applications
+ * already SUCCESSFUL for it, since those may still book. A SUCCESSFUL application with an active
+ * {@link BookingHold} is not subtracted: placing the hold already took its unit out of the remaining units.
+ * Applications with a withdrawal request are left alone.
+ * <p>
+ * The order is drawn from a seed, combined with the project name and flat type, after sorting the applications
+ * by NRIC, so a ballot depends only on the seed and the applications in it: it gives the same outcome however
+ * the projects are split between threads and in whatever order the applications were loaded. Projects are
+ * balloted in parallel, and the decisions of each project are journalled together.
+ */
+public class BallotService {
+    private final int parallelism;
+    private final BookingReservationService reservations;
+
+    /**
+     * Constructs a BallotService that uses one thread per available processor.
+     *
+     * @param reservations The service holding flat units for bookings, whose held units are already taken.
+     */
+    public BallotService(BookingReservationService reservations) {
+        this(Runtime.getRuntime().availableProcessors(), reservations);
+    }
+    /**
+     * Constructs a BallotService.
+     *
+     * @param parallelism The number of projects to ballot at once.
+     * @param reservations The service holding flat units for bookings, whose held units are already taken.
+     * @throws IllegalArgumentException If the parallelism is less than 1.
+     */
+    public BallotService(int parallelism, BookingReservationService reservations) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+        this.reservations = reservations;
+    }
+    /**
+     * Ballots the pending applications of the given projects with a random seed.
+     *
+     * @param projects The projects to ballot.
+     * @return The result, whose seed reproduces the ballot.
+     */
+    public BallotResult runBallot(List<Project> projects) {
+        return runBallot(projects, new SplittableRandom().nextLong());
+    }
+    /**
+     * Ballots the pending applications of the given projects.
+     *
+     * @param projects The projects to ballot.
+     * @param seed The seed to draw the ballots with.
+     * @return The result of the ballot.
+     * @throws IllegalStateException If a project's ballot fails, or the thread is interrupted while the projects are
+     *                               balloted; the ballots not yet started are cancelled, and the others keep their
+     *                               decisions.
+     */
+    public BallotResult runBallot(List<Project> projects, long seed) {
+        long start = System.nanoTime();
+        List<Callable<int[]>> tasks = new ArrayList<>();
+        for (Project project : projects) {
+            tasks.add(() -> ballotProject(project, seed));
+        }
+        int ballots = 0;
+        int successful = 0;
+        int unsuccessful = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<int[]> future : pool.invokeAll(tasks)) {
+                int[] counts = future.get();
+                ballots += counts[0];
+                successful += counts[1];
+                unsuccessful += counts[2];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            throw new IllegalStateException("The ballot was interrupted; some projects may not have been balloted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The ballot failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new BallotResult(seed, ballots, successful, unsuccessful, System.nanoTime() - start);
+    }
+    /**
+     * Ballots the pending applications of one project, separately for each flat type.
+     *
+     * @param project The project.
+     * @param seed The seed of the whole ballot.
+     * @return The number of ballots drawn, and of applications that became SUCCESSFUL and UNSUCCESSFUL.
+     */
+    private int[] ballotProject(Project project, long seed) {
+        Map<FlatType, List<Application>> pendingByType = new EnumMap<>(FlatType.class);
+        Map<FlatType, Integer> successfulByType = new EnumMap<>(FlatType.class);
+        for (Application app : new ArrayList<>(project.getApplications())) {
+            if (app.getStatus() == ApplicationStatus.PENDING && !app.isWithdrawalRequested()) {
+                pendingByType.computeIfAbsent(app.getFlatType(), k -> new ArrayList<>()).add(app);
+            } else if (app.getStatus() == ApplicationStatus.SUCCESSFUL && reservations.findHold(app) == null) {
+                // A held unit is no longer among the remaining units, so only unheld applications are subtracted
+                successfulByType.merge(app.getFlatType(), 1, Integer::sum);
+            }
+        }
+
+        List<String> approved = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        for (Map.Entry<FlatType, List<Application>> entry : pendingByType.entrySet()) {
+            FlatType type = entry.getKey();
+            List<Application> pending = entry.getValue();
+            int supply = Math.max(0, project.getNumUnits(type) - successfulByType.getOrDefault(type, 0));
+            int winners = Math.min(supply, pending.size());
+
+            // Only the winners need to be drawn: a partial Fisher-Yates shuffle puts them at the front
+            pending.sort(Comparator.comparing(app -> app.getApplicant().getNric()));
+            SplittableRandom random = new SplittableRandom(ballotSeed(seed, project, type));
+            for (int i = 0; i < winners; i++) {
+                int j = i + random.nextInt(pending.size() - i);
+                Application drawn = pending.get(j);
+                pending.set(j, pending.get(i));
+                pending.set(i, drawn);
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                decide(pending.get(i), i < winners, approved, rejected);
+            }
+        }
+        Journal.recordAll(Journal.Op.APPROVE, approved);
+        Journal.recordAll(Journal.Op.REJECT, rejected);
+        return new int[] { pendingByType.size(), approved.size(), rejected.size() };
+    }
+    /**
+     * Approves or rejects an application, unless it stopped being pending while the ballot was drawn.
+     *
+     * @param app The application.
+     * @param successful Whether the application was drawn.
+     * @param approved The NRICs of the applications approved so far, to which this one is added if approved.
+     * @param rejected The NRICs of the applications rejected so far, to which this one is added if rejected.
+     */
+    private static void decide(Application app, boolean successful, List<String> approved, List<String> rejected) {
+        // Held while checking and setting the status, as when booking, so a concurrent change is never overwritten
+        synchronized (app) {
+            if (app.getStatus() != ApplicationStatus.PENDING || app.isWithdrawalRequested()) {
+                return;
+            }
+            if (successful) {
+                app.approve();
+            } else {
+                app.reject();
+            }
+        }
+        (successful ? approved : rejected).add(app.getApplicant().getNric());
+    }
+    /**
+     * Derives the seed of the ballot for one project and flat type.
+     *
+     * @param seed The seed of the whole ballot.
+     * @param project The project.
+     * @param type The flat type.
+     * @return The seed of the project's ballot for the flat type.
+     */
+    private static long ballotSeed(long seed, Project project, FlatType type) {
+        return seed ^ ((long) project.getProjectName().hashCode() << 8) ^ type.ordinal();
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.transaction.Application;
+
+/**
+ * The BookingHold class is a time-limited hold on one flat unit for a successful application, placed by
+ * {@link BookingReservationService#placeHold(Application)}. While the hold is active the unit is taken out of
+ * the project's inventory, so no other booking can take it. A hold ends exactly once: it is confirmed and the
+ * application becomes booked, it is released by the officer, or it expires and the unit is returned.
+ * The end is decided by a single compare-and-set on the hold's state, so whichever of these happens first wins.
+ */
+public class BookingHold {
+    /** The state of a hold that has not ended yet. */
+    static final int ACTIVE = 0;
+    /** The state of a hold whose application was booked. */
+    static final int CONFIRMED = 1;
+    /** The state of a hold released before it expired. */
+    static final int RELEASED = 2;
+    /** The state of a hold that expired. */
+    static final int EXPIRED = 3;
+
+    private final Application application;
+    private final long expiresAtMillis;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+    private volatile TimerWheel.Timeout<BookingHold> timeout;
+
+    /**
+     * Constructs an active hold.
+     *
+     * @param application The application the unit is held for.
+     * @param expiresAtMillis The time at which the hold expires, in milliseconds.
+     */
+    BookingHold(Application application, long expiresAtMillis) {
+        this.application = application;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+    /**
+     * Gets the application the unit is held for.
+     *
+     * @return The application.
+     */
+    public Application getApplication() {
+        return application;
+    }
+    /**
+     * Gets the time at which the hold expires unless it is confirmed or released first.
+     *
+     * @return The expiry time, in milliseconds since the epoch.
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+    /**
+     * Checks whether the hold is still active.
+     *
+     * @return true if the hold has not been confirmed, released or expired.
+     */
+    public boolean isActive() {
+        return state.get() == ACTIVE;
+    }
+    /**
+     * Checks whether the hold was confirmed.
+     *
+     * @return true if the application was booked through this hold.
+     */
+    public boolean isConfirmed() {
+        return state.get() == CONFIRMED;
+    }
+    /**
+     * Checks whether the hold expired.
+     *
+     * @return true if the hold expired before it was confirmed or released.
+     */
+    public boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+    /**
+     * Ends the hold, if it is still active.
+     *
+     * @param end The state the hold ends in.
+     * @return true if this call ended the hold; false if it had already ended.
+     */
+    boolean end(int end) {
+        return state.compareAndSet(ACTIVE, end);
+    }
+    /**
+     * Gets the handle of the hold's expiry in the timer wheel.
+     *
+     * @return The handle.
+     */
+    TimerWheel.Timeout<BookingHold> getTimeout() {
+        return timeout;
+    }
+    /**
+     * Sets the handle of the hold's expiry in the timer wheel.
+     *
+     * @param timeout The handle.
+     */
+    void setTimeout(TimerWheel.Timeout<BookingHold> timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,254 @@
+package service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import data.Journal;
+import data.ProjectRepository;
+import model.project.Project;
+import model.transaction.Application;
+import model.transaction.ApplicationStatus;
+
+/**
+ * Service class that books flats in two steps. An officer first places a time-limited hold on a unit for a
+ * SUCCESSFUL application, which takes the unit out of the project's inventory at once, and then either confirms
+ * the hold, booking the application, or releases it. A hold that is neither confirmed nor released expires and
+ * its unit is returned, so a booking session that is abandoned never keeps a unit for long.
+ * <p>
+ * Units are taken with {@link Project#tryReserve}, which never takes more units than there are, and each
+ * application can have at most one hold, so concurrent sessions can neither oversell a flat type nor book an
+ * application twice. Expiries are kept in a {@link TimerWheel} that is moved forward by the service's own calls;
+ * the only lock held while booking is that of the application being booked, so sessions cannot deadlock.
+ * <p>
+ * Holds live only in memory. Confirming a hold journals the booking as {@link Journal.Op#BOOK}, exactly as a
+ * booking made in one step.
+ */
+public class BookingReservationService {
+    /** The default time a unit is held for, in milliseconds. */
+    public static final long DEFAULT_HOLD_MILLIS = 10 * 60_000;
+    /** The precision of hold expiry, in milliseconds. */
+    private static final long TICK_MILLIS = 1_000;
+
+    private final ConcurrentHashMap<Application, BookingHold> holds = new ConcurrentHashMap<>();
+    private final TimerWheel<BookingHold> expiries;
+    private final long holdMillis;
+    private final LongSupplier clock;
+    // The time from which the timer wheel may have holds to expire, so most calls skip it
+    private volatile long nextTickMillis;
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Constructs a BookingReservationService holding units for {@link #DEFAULT_HOLD_MILLIS}.
+     */
+    public BookingReservationService() {
+        this(DEFAULT_HOLD_MILLIS, System::currentTimeMillis);
+    }
+    /**
+     * Constructs a BookingReservationService.
+     *
+     * @param holdMillis The time a unit is held for before the hold expires, in milliseconds.
+     * @param clock The source of the current time, in milliseconds.
+     * @throws IllegalArgumentException If the hold time is not positive.
+     */
+    public BookingReservationService(long holdMillis, LongSupplier clock) {
+        if (holdMillis < 1) {
+            throw new IllegalArgumentException("The hold time must be positive.");
+        }
+        this.holdMillis = holdMillis;
+        this.clock = clock;
+        this.expiries = new TimerWheel<>(TICK_MILLIS, clock.getAsLong());
+    }
+    /**
+     * Holds one unit of the application's flat type for the application.
+     *
+     * @param application The application to hold a unit for.
+     * @return The hold, which expires after the hold time unless it is confirmed or released first.
+     * @throws IllegalStateException If the application is not SUCCESSFUL, already has a unit held for it,
+     *                               or its project has no units of its flat type left.
+     */
+    public BookingHold placeHold(Application application) {
+        expireHolds();
+        if (application.getStatus() != ApplicationStatus.SUCCESSFUL) {
+            throw new IllegalStateException("Applicant's status cannot be changed to BOOKED because they are not SUCCESSFUL.");
+        }
+        if (holds.containsKey(application)) {
+            throw new IllegalStateException("A flat is already being held for this application.");
+        }
+        Project project = application.getProject();
+        if (!project.tryReserve(application.getFlatType())) {
+            throw new IllegalStateException("No available flats of this type.");
+        }
+        BookingHold hold = new BookingHold(application, clock.getAsLong() + holdMillis);
+        // The unit is taken before the hold is published, so a published hold always has its unit
+        if (holds.putIfAbsent(application, hold) != null) {
+            returnUnit(application);
+            throw new IllegalStateException("A flat is already being held for this application.");
+        }
+        hold.setTimeout(expiries.schedule(hold, hold.getExpiresAtMillis()));
+        ProjectRepository.reindex(project);
+        return hold;
+    }
+    /**
+     * Confirms a hold, booking its application.
+     *
+     * @param hold The hold to confirm.
+     * @return true if the application was booked; false if the hold had already expired or been released.
+     * @throws IllegalStateException If the application stopped being SUCCESSFUL while the unit was held,
+     *                               for example because it was withdrawn; the unit is then returned.
+     */
+    public boolean confirm(BookingHold hold) {
+        if (clock.getAsLong() >= hold.getExpiresAtMillis()) {
+            // Expiry is only checked once per tick, so a hold that is just past due is expired here
+            expire(hold);
+            return false;
+        }
+        Application application = hold.getApplication();
+        // Held while checking and setting the status, so a concurrent one-step booking cannot book it as well
+        synchronized (application) {
+            if (application.getStatus() != ApplicationStatus.SUCCESSFUL) {
+                if (end(hold, BookingHold.RELEASED)) {
+                    released.increment();
+                }
+                throw new IllegalStateException("Applicant's status cannot be changed to BOOKED because they are not SUCCESSFUL.");
+            }
+            if (!hold.end(BookingHold.CONFIRMED)) {
+                return false;
+            }
+            application.setStatus(ApplicationStatus.BOOKED);
+        }
+        forget(hold);
+        Journal.record(Journal.Op.BOOK, application.getApplicant().getNric());
+        confirmed.increment();
+        return true;
+    }
+    /**
+     * Releases a hold before it expires, returning its unit.
+     *
+     * @param hold The hold to release.
+     * @return true if the hold was released; false if it had already been confirmed, released or expired.
+     */
+    public boolean release(BookingHold hold) {
+        if (!end(hold, BookingHold.RELEASED)) {
+            return false;
+        }
+        released.increment();
+        return true;
+    }
+    /**
+     * Retrieves the active hold of an application.
+     *
+     * @param application The application.
+     * @return The hold, or null if no unit is held for the application.
+     */
+    public BookingHold findHold(Application application) {
+        expireHolds();
+        return holds.get(application);
+    }
+    /**
+     * Expires the holds whose time is up and returns their units. The service calls this itself whenever
+     * a hold is placed or looked up; it can also be called periodically so that units come back sooner.
+     *
+     * @return The number of holds that expired.
+     */
+    public int expireHolds() {
+        long now = clock.getAsLong();
+        if (now < nextTickMillis) {
+            return 0;
+        }
+        nextTickMillis = (now / TICK_MILLIS + 1) * TICK_MILLIS;
+        int count = 0;
+        List<BookingHold> due = expiries.advance(now);
+        for (BookingHold hold : due) {
+            if (expire(hold)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+     * Gets the number of holds that are active.
+     *
+     * @return The number of applications with a unit held for them.
+     */
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+    /**
+     * Gets the number of holds that were confirmed.
+     *
+     * @return The number of confirmed holds.
+     */
+    public long getConfirmedCount() {
+        return confirmed.sum();
+    }
+    /**
+     * Gets the number of holds that were released, including those whose application was withdrawn.
+     *
+     * @return The number of released holds.
+     */
+    public long getReleasedCount() {
+        return released.sum();
+    }
+    /**
+     * Gets the number of holds that expired.
+     *
+     * @return The number of expired holds.
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+    /**
+     * Expires a hold, if it is still active.
+     *
+     * @param hold The hold.
+     * @return true if this call expired the hold.
+     */
+    private boolean expire(BookingHold hold) {
+        if (!end(hold, BookingHold.EXPIRED)) {
+            return false;
+        }
+        expired.increment();
+        return true;
+    }
+    /**
+     * Ends an active hold without booking it, returning its unit.
+     *
+     * @param hold The hold.
+     * @param end The state the hold ends in.
+     * @return true if this call ended the hold; false if it had already ended.
+     */
+    private boolean end(BookingHold hold, int end) {
+        if (!hold.end(end)) {
+            return false;
+        }
+        forget(hold);
+        returnUnit(hold.getApplication());
+        return true;
+    }
+    /**
+     * Removes an ended hold from the active holds and cancels its expiry.
+     *
+     * @param hold The hold.
+     */
+    private void forget(BookingHold hold) {
+        holds.remove(hold.getApplication(), hold);
+        TimerWheel.Timeout<BookingHold> timeout = hold.getTimeout();
+        if (timeout != null) {
+            expiries.cancel(timeout);
+        }
+    }
+    /**
+     * Returns the unit held for an application to its project.
+     *
+     * @param application The application.
+     */
+    private void returnUnit(Application application) {
+        Project project = application.getProject();
+        project.release(application.getFlatType());
+        ProjectRepository.reindex(project);
+    }
+}
@@ -0,0 +1,170 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import model.project.FlatType;
+import model.project.Project;
+import model.user.Applicant;
+import model.user.MaritalStatus;
+
+/**
+ * Service class that evaluates eligibility for many applicants at once. Eligibility in {@link Applicant#isEligible}
+ * depends on an applicant only through their marital status and whether their age reaches
+ * {@link Applicant#MIN_AGE_MARRIED} or {@link Applicant#MIN_AGE_SINGLE}, so applicants fall into a small number of
+ * cohorts whose members are always eligible for the same flat types. The service partitions the applicants into
+ * these cohorts once, and bulk operations such as reports, notifications or searches on behalf of every applicant
+ * then evaluate eligibility once per cohort and project rather than once per applicant and project.
+ * <p>
+ * The flat types each cohort can apply for in a project are kept in {@link EligibilityCache}, and so are
+ * recomputed only after the project changes.
+ */
+public class CohortEligibilityService {
+    private static final MaritalStatus[] MARITAL_STATUSES = MaritalStatus.values();
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+    /** The lowest age of each age band: below both thresholds, between them, and at or above both. */
+    private static final int[] AGE_BANDS = {
+            0,
+            Math.min(Applicant.MIN_AGE_MARRIED, Applicant.MIN_AGE_SINGLE),
+            Math.max(Applicant.MIN_AGE_MARRIED, Applicant.MIN_AGE_SINGLE)
+    };
+    /** The number of cohorts. */
+    public static final int COHORT_COUNT = MARITAL_STATUSES.length * AGE_BANDS.length;
+    /** One applicant standing in for each cohort. */
+    private static final Applicant[] REPRESENTATIVES = new Applicant[COHORT_COUNT];
+
+    static {
+        for (MaritalStatus status : MARITAL_STATUSES) {
+            for (int band = 0; band < AGE_BANDS.length; band++) {
+                REPRESENTATIVES[status.ordinal() * AGE_BANDS.length + band] =
+                        new Applicant("", "", "", AGE_BANDS[band], status);
+            }
+        }
+    }
+
+    private final List<List<Applicant>> cohorts;
+
+    /**
+     * Constructs a CohortEligibilityService over a fixed set of applicants, partitioning them into cohorts.
+     *
+     * @param applicants The applicants that bulk operations are run for.
+     */
+    public CohortEligibilityService(Collection<? extends Applicant> applicants) {
+        cohorts = new ArrayList<>(COHORT_COUNT);
+        for (int i = 0; i < COHORT_COUNT; i++) {
+            cohorts.add(new ArrayList<>());
+        }
+        for (Applicant applicant : applicants) {
+            cohorts.get(cohortOf(applicant)).add(applicant);
+        }
+    }
+    /**
+     * Determines the eligibility cohort of an applicant.
+     *
+     * @param applicant The applicant.
+     * @return The cohort, from 0 to {@link #COHORT_COUNT} - 1.
+     */
+    public static int cohortOf(Applicant applicant) {
+        int age = applicant.getAge();
+        int band = AGE_BANDS.length - 1;
+        while (band > 0 && age < AGE_BANDS[band]) {
+            band--;
+        }
+        return applicant.getMaritalStatus().ordinal() * AGE_BANDS.length + band;
+    }
+    /**
+     * Retrieves the applicants of a cohort.
+     *
+     * @param cohort The cohort.
+     * @return An unmodifiable list of the applicants in the cohort, in the order they were given.
+     */
+    public List<Applicant> getCohort(int cohort) {
+        return Collections.unmodifiableList(cohorts.get(cohort));
+    }
+    /**
+     * Finds the applicants who are eligible to apply for a flat type in a project.
+     *
+     * @param project The project.
+     * @param type The flat type.
+     * @return A new list of the eligible applicants, grouped by cohort.
+     */
+    public List<Applicant> findEligibleApplicants(Project project, FlatType type) {
+        List<Applicant> eligible = new ArrayList<>();
+        for (int cohort = 0; cohort < COHORT_COUNT; cohort++) {
+            if ((eligibleFlatTypes(cohort, project) & (1 << type.ordinal())) != 0) {
+                eligible.addAll(cohorts.get(cohort));
+            }
+        }
+        return eligible;
+    }
+    /**
+     * Counts the applicants who are eligible to apply for each flat type a project offers.
+     *
+     * @param project The project.
+     * @return The number of eligible applicants per flat type offered by the project.
+     */
+    public Map<FlatType, Integer> countEligibleApplicants(Project project) {
+        Map<FlatType, Integer> counts = new EnumMap<>(FlatType.class);
+        for (FlatType type : project.getFlatUnits().keySet()) {
+            counts.put(type, 0);
+        }
+        for (int cohort = 0; cohort < COHORT_COUNT; cohort++) {
+            int eligibleTypes = eligibleFlatTypes(cohort, project);
+            for (FlatType type : FLAT_TYPES) {
+                if ((eligibleTypes & (1 << type.ordinal())) != 0) {
+                    counts.merge(type, cohorts.get(cohort).size(), Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+    /**
+     * Passes every applicant, together with the projects that offer a flat type they are eligible for, to an action.
+     * The list of projects is computed once per cohort and shared by all of its applicants.
+     *
+     * @param projects The projects to consider.
+     * @param action The action to run for each applicant; it must not modify the list of projects.
+     */
+    public void forEachEligibleProjects(List<Project> projects, BiConsumer<Applicant, List<Project>> action) {
+        for (int cohort = 0; cohort < COHORT_COUNT; cohort++) {
+            List<Applicant> members = cohorts.get(cohort);
+            if (members.isEmpty()) {
+                continue;
+            }
+            List<Project> eligibleProjects = new ArrayList<>();
+            for (Project project : projects) {
+                if (eligibleFlatTypes(cohort, project) != 0) {
+                    eligibleProjects.add(project);
+                }
+            }
+            List<Project> shared = Collections.unmodifiableList(eligibleProjects);
+            for (Applicant applicant : members) {
+                action.accept(applicant, shared);
+            }
+        }
+    }
+    /**
+     * Determines the flat types that members of a cohort can apply for in a project.
+     *
+     * @param cohort The cohort.
+     * @param project The project.
+     * @return One bit per flat type ordinal that the project offers and the cohort is eligible for.
+     */
+    public static int eligibleFlatTypes(int cohort, Project project) {
+        return EligibilityCache.eligibleTypes(cohort, project);
+    }
+    /**
+     * Retrieves the applicant standing in for a cohort, whose eligibility is that of every member.
+     *
+     * @param cohort The cohort.
+     * @return The representative applicant.
+     */
+    static Applicant representative(int cohort) {
+        return REPRESENTATIVES[cohort];
+    }
+}
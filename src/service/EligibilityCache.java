@@ -0,0 +1,86 @@
+package service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import model.project.FlatType;
+import model.project.Project;
+import model.user.Applicant;
+
+/**
+ * The EligibilityCache class remembers which flat types of a project applicants can apply for, so that listing
+ * projects does not re-check every applicant against every flat type of every project.
+ * <p>
+ * The result is stored once per eligibility cohort (see {@link CohortEligibilityService#cohortOf}) and project,
+ * since all members of a cohort are eligible for the same flat types. Each entry records
+ * the {@link Project#getVersion() version} of the project it was computed for; a change to the project's units,
+ * prices or visibility gives it a new version, and the entry is recomputed on its next use.
+ * <p>
+ * The cache is safe to use from several sessions at once.
+ */
+public class EligibilityCache {
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+    private static final int COHORTS = CohortEligibilityService.COHORT_COUNT;
+    /** Set in every filled entry, so that an empty slot (0) is never mistaken for one. */
+    private static final long FILLED = 1L << 31;
+
+    /**
+     * One slot per cohort; a filled slot holds the project version in its upper 32 bits, the {@link #FILLED} bit,
+     * and one bit per eligible flat type ordinal.
+     */
+    private static final Map<Project, AtomicLongArray> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an EligibilityCache instance.
+     * All methods are static, so this constructor is not normally needed.
+     */
+    public EligibilityCache() {
+        // All methods are static
+    }
+    /**
+     * Checks whether a project offers a flat type and the applicant is eligible to apply for it.
+     *
+     * @param applicant The applicant whose eligibility is checked.
+     * @param project The project.
+     * @param type The flat type.
+     * @return true if the project offers the flat type and {@link Applicant#isEligible} allows the applicant to apply.
+     */
+    public static boolean isEligible(Applicant applicant, Project project, FlatType type) {
+        return (eligibleTypes(CohortEligibilityService.cohortOf(applicant), project) & (1 << type.ordinal())) != 0;
+    }
+    /**
+     * Forgets the entries of a project, once it is deleted.
+     *
+     * @param project The deleted project.
+     */
+    public static void evict(Project project) {
+        entries.remove(project);
+    }
+    /**
+     * Looks up the flat types of a project a cohort is eligible for, computing them if the cached entry
+     * is missing or was computed for an older version of the project.
+     *
+     * @param cohort The cohort.
+     * @param project The project.
+     * @return One bit per flat type ordinal that the project offers and the cohort is eligible for.
+     */
+    static int eligibleTypes(int cohort, Project project) {
+        AtomicLongArray slots = entries.computeIfAbsent(project, p -> new AtomicLongArray(COHORTS));
+        // Read the version first: if the project changes while the entry is computed, the entry is already stale
+        int version = project.getVersion();
+        long slot = slots.get(cohort);
+        if ((slot & FILLED) != 0 && (int) (slot >>> 32) == version) {
+            return (int) slot & 0xFF;
+        }
+        Applicant representative = CohortEligibilityService.representative(cohort);
+        int mask = 0;
+        for (FlatType type : FLAT_TYPES) {
+            if (project.getFlatUnits().containsKey(type) && representative.isEligible(project, type)) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        slots.set(cohort, ((long) version << 32) | FILLED | mask);
+        return mask;
+    }
+}
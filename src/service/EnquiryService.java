@@ -1,5 +1,6 @@
 package service;
 
+import data.Journal;
 import model.user.Applicant;
 import model.user.HDBManager;
 import model.user.HDBOfficer;
@@ -38,6 +39,7 @@ public class EnquiryService {
 
         applicant.getEnquiries().add(enquiry);
         project.addEnquiry(enquiry);
+        Journal.record(Journal.Op.SUBMIT_ENQUIRY, project.getProjectName(), enquiryId, applicant.getNric(), enquiryMessage);
         return enquiry;
     }
 
@@ -76,6 +78,8 @@ public class EnquiryService {
                     break;
                 }
             }
+            Journal.record(Journal.Op.EDIT_ENQUIRY, project.getProjectName(), enquiry.getEnquiryId(),
+                    applicant.getNric(), newEnquiryMessage);
             return true;
         } else {
             return false;
@@ -110,6 +114,7 @@ public class EnquiryService {
         index = project.getEnquiries().indexOf(enquiry);
         if (index < 0) return false;
         project.getEnquiries().remove(index);
+        Journal.record(Journal.Op.DELETE_ENQUIRY, project.getProjectName(), enquiry.getEnquiryId(), applicant.getNric());
         return true;
     }
 
@@ -163,6 +168,7 @@ public class EnquiryService {
         Enquiry enquiry = project.getEnquiryById(enquiryId);
         if (enquiry != null) {
             enquiry.setReply(replyMessage);
+            Journal.record(Journal.Op.REPLY_ENQUIRY, project.getProjectName(), enquiryId, replyMessage);
             return true;
         }
         return false;
@@ -0,0 +1,269 @@
+package service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The LoginThrottle class limits repeated failed logins per NRIC. Once an NRIC has failed too often within a
+ * sliding time window, further attempts for it are refused straight away, before any user lookup or password
+ * hashing, until enough time has passed. A successful login clears the NRIC's failures.
+ * <p>
+ * The sliding window is estimated from two fixed windows: the failures of the current window plus those of
+ * the previous window, weighted by how much of the previous window still overlaps the sliding one.
+ * <p>
+ * Counters live in a fixed table of slots, so memory stays bounded however many NRICs are tried. Each NRIC may
+ * use one of two slots; a slot holds a 16-bit fingerprint of its NRIC, the number of its current window, and the
+ * two failure counts, packed into one long that is updated by compare-and-set, so the throttle never locks. When
+ * both slots of an NRIC are taken by other active NRICs, the one with fewer failures is evicted.
+ * <p>
+ * The throttle also counts accepted, rejected and throttled attempts.
+ */
+public class LoginThrottle {
+    /** The default number of failures allowed per window. */
+    public static final int DEFAULT_MAX_FAILURES = 5;
+    /** The default length of the window, in milliseconds. */
+    public static final long DEFAULT_WINDOW_MILLIS = 60_000;
+    private static final int SLOTS = 1 << 16;
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+    private final int maxFailures;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Constructs a throttle allowing {@link #DEFAULT_MAX_FAILURES} failures per {@link #DEFAULT_WINDOW_MILLIS}.
+     */
+    public LoginThrottle() {
+        this(DEFAULT_MAX_FAILURES, DEFAULT_WINDOW_MILLIS, System::currentTimeMillis);
+    }
+    /**
+     * Constructs a throttle.
+     *
+     * @param maxFailures The number of failures after which an NRIC is throttled.
+     * @param windowMillis The length of the sliding window, in milliseconds.
+     * @param clock The source of the current time, in milliseconds.
+     * @throws IllegalArgumentException If the number of failures or the window length is not positive.
+     */
+    public LoginThrottle(int maxFailures, long windowMillis, LongSupplier clock) {
+        if (maxFailures < 1 || maxFailures > MAX_COUNT || windowMillis < 1) {
+            throw new IllegalArgumentException("The failure limit and the window must be positive.");
+        }
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+    /**
+     * Checks whether login attempts for an NRIC may go ahead, counting the attempt as throttled if not.
+     *
+     * @param nric The NRIC being logged in to.
+     * @return true if the attempt may proceed; false if the NRIC has failed too often recently.
+     */
+    public boolean tryAcquire(String nric) {
+        int hash = hash(nric);
+        int fingerprint = fingerprint(hash);
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        for (int index : candidates(hash)) {
+            long slot = slots.get(index);
+            if (fingerprintOf(slot) == fingerprint) {
+                // Failures of the previous window count for the part of it still inside the sliding window
+                double overlap = 1.0 - (double) (now % windowMillis) / windowMillis;
+                int current = currentCount(slot, window);
+                int previous = previousCount(slot, window);
+                if (current + previous * overlap >= maxFailures) {
+                    throttled.increment();
+                    return false;
+                }
+                return true;
+            }
+        }
+        return true;
+    }
+    /**
+     * Records a failed login for an NRIC.
+     *
+     * @param nric The NRIC whose login failed.
+     */
+    public void recordFailure(String nric) {
+        rejected.increment();
+        int hash = hash(nric);
+        int fingerprint = fingerprint(hash);
+        long window = clock.getAsLong() / windowMillis;
+        int[] candidates = candidates(hash);
+        while (true) {
+            int index = chooseSlot(candidates, fingerprint, window);
+            long slot = slots.get(index);
+            int current = 0;
+            int previous = 0;
+            if (fingerprintOf(slot) == fingerprint) {
+                current = currentCount(slot, window);
+                previous = previousCount(slot, window);
+            }
+            long updated = pack(fingerprint, window, previous, Math.min(current + 1, MAX_COUNT));
+            if (slots.compareAndSet(index, slot, updated)) {
+                return;
+            }
+        }
+    }
+    /**
+     * Records a successful login for an NRIC, clearing its failures.
+     *
+     * @param nric The NRIC that logged in.
+     */
+    public void recordSuccess(String nric) {
+        accepted.increment();
+        int hash = hash(nric);
+        int fingerprint = fingerprint(hash);
+        for (int index : candidates(hash)) {
+            long slot = slots.get(index);
+            if (fingerprintOf(slot) == fingerprint) {
+                // If another thread changed the slot meanwhile, its update stands
+                slots.compareAndSet(index, slot, 0);
+            }
+        }
+    }
+    /**
+     * Gets the number of successful logins.
+     *
+     * @return The number of accepted attempts.
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+    /**
+     * Gets the number of logins that were checked and failed.
+     *
+     * @return The number of rejected attempts.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    /**
+     * Gets the number of logins refused without being checked, because their NRIC had failed too often.
+     *
+     * @return The number of throttled attempts.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+    /**
+     * Chooses the slot to count a failure in: the slot already holding the NRIC, else a free or expired slot,
+     * else the candidate with fewer recent failures.
+     *
+     * @param candidates The two candidate slots of the NRIC.
+     * @param fingerprint The fingerprint of the NRIC.
+     * @param window The current window.
+     * @return The index of the chosen slot.
+     */
+    private int chooseSlot(int[] candidates, int fingerprint, long window) {
+        int best = candidates[0];
+        int bestCount = Integer.MAX_VALUE;
+        for (int index : candidates) {
+            long slot = slots.get(index);
+            if (fingerprintOf(slot) == fingerprint) {
+                return index;
+            }
+            int count = currentCount(slot, window) + previousCount(slot, window);
+            if (count < bestCount) {
+                best = index;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+    /**
+     * Gets the failures of a slot in the current window.
+     *
+     * @param slot The packed slot.
+     * @param window The current window.
+     * @return The failure count, or 0 if the slot was last updated in an earlier window.
+     */
+    private static int currentCount(long slot, long window) {
+        return windowOf(slot) == (int) (window & 0xFFFF) ? (int) (slot & 0xFFFF) : 0;
+    }
+    /**
+     * Gets the failures of a slot in the window before the current one.
+     *
+     * @param slot The packed slot.
+     * @param window The current window.
+     * @return The failure count, or 0 if the slot was last updated before that window.
+     */
+    private static int previousCount(long slot, long window) {
+        int slotWindow = windowOf(slot);
+        if (slotWindow == (int) (window & 0xFFFF)) {
+            return (int) (slot >>> 16) & 0xFFFF;
+        }
+        if (slotWindow == (int) ((window - 1) & 0xFFFF)) {
+            return (int) (slot & 0xFFFF);
+        }
+        return 0;
+    }
+    /**
+     * Packs a slot: fingerprint, window, previous count and current count, 16 bits each.
+     *
+     * @param fingerprint The fingerprint of the NRIC.
+     * @param window The current window.
+     * @param previous The failures of the previous window.
+     * @param current The failures of the current window.
+     * @return The packed slot.
+     */
+    private static long pack(int fingerprint, long window, int previous, int current) {
+        return ((long) fingerprint << 48) | ((window & 0xFFFF) << 32) | ((long) previous << 16) | current;
+    }
+    /**
+     * Gets the fingerprint of the NRIC a slot belongs to.
+     *
+     * @param slot The packed slot.
+     * @return The fingerprint, or 0 if the slot is free.
+     */
+    private static int fingerprintOf(long slot) {
+        return (int) (slot >>> 48);
+    }
+    /**
+     * Gets the window in which a slot was last updated, modulo 65536.
+     *
+     * @param slot The packed slot.
+     * @return The window.
+     */
+    private static int windowOf(long slot) {
+        return (int) (slot >>> 32) & 0xFFFF;
+    }
+    /**
+     * Hashes an NRIC, ignoring case.
+     *
+     * @param nric The NRIC.
+     * @return The spread hash.
+     */
+    private static int hash(String nric) {
+        int h = nric == null ? 0 : nric.toUpperCase(Locale.ROOT).hashCode();
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    /**
+     * Derives the fingerprint of an NRIC from its hash; fingerprints are never 0, which marks a free slot.
+     *
+     * @param hash The hash of the NRIC.
+     * @return The fingerprint, from 1 to 65535.
+     */
+    private static int fingerprint(int hash) {
+        int fingerprint = hash >>> 16;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+    /**
+     * Determines the two slots an NRIC may use.
+     *
+     * @param hash The hash of the NRIC.
+     * @return The indexes of the slots.
+     */
+    private static int[] candidates(int hash) {
+        int first = hash & (SLOTS - 1);
+        int second = (first ^ (Integer.rotateLeft(hash, 11) * 0x85EBCA6B) >>> 16) & (SLOTS - 1);
+        return new int[] { first, second };
+    }
+}
@@ -0,0 +1,38 @@
+package service;
+
+/**
+ * A PasswordHasher turns passwords into the encoded form stored for a user and checks login attempts against it.
+ * Implementations choose their own algorithm and work factor and must record both in the encoded form, so that
+ * passwords hashed under an older setting can still be verified and then rehashed.
+ * <p>
+ * Stored values that were not produced by a hasher are legacy plaintext passwords. Implementations must still
+ * verify them, and report through {@link #needsRehash(String)} that they should be replaced by a hash.
+ */
+public interface PasswordHasher {
+    /**
+     * Hashes a password with a new random salt.
+     *
+     * @param password The password in plaintext.
+     * @return The encoded hash to store.
+     */
+    String hash(String password);
+
+    /**
+     * Checks a password against a stored value. Checking a legacy plaintext value should take as long as checking
+     * a hash, so that response times do not reveal which users still have one.
+     *
+     * @param password The password entered by the user.
+     * @param stored The stored encoded hash, or a legacy plaintext password.
+     * @return true if the password matches.
+     */
+    boolean verify(String password, String stored);
+
+    /**
+     * Checks whether a stored value should be replaced by a fresh hash, because it is plaintext or was hashed
+     * with a different algorithm or work factor than this hasher uses.
+     *
+     * @param stored The stored encoded hash, or a legacy plaintext password.
+     * @return true if the value should be rehashed the next time the password is known.
+     */
+    boolean needsRehash(String stored);
+}
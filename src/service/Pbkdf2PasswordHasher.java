@@ -0,0 +1,148 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * The Pbkdf2PasswordHasher class hashes passwords with PBKDF2-HMAC-SHA256 and a random 16-byte salt per password.
+ * Hashes are stored as {@code pbkdf2-sha256:<iterations>:<salt>:<hash>}, with salt and hash in Base64.
+ * <p>
+ * The number of iterations is the work factor: each login costs one derivation, so doubling the iterations
+ * roughly halves the number of logins per second a processor core can check. Hashes made with a different
+ * number of iterations are still verified, and are reported by {@link #needsRehash(String)} so that they
+ * move to the current setting on the next successful login.
+ * <p>
+ * Every check costs one derivation, including checks against legacy plaintext and corrupt hashes, so that the
+ * time a login takes does not reveal how the user's password is stored.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    /** The default number of iterations. */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+    private static final String PREFIX = "pbkdf2-sha256:";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    /** The salt of the derivations that are only run so that every check takes as long. */
+    private static final byte[] TIMING_SALT = new byte[SALT_BYTES];
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+
+    /**
+     * Constructs a hasher with the default number of iterations.
+     */
+    public Pbkdf2PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+    /**
+     * Constructs a hasher with the given number of iterations.
+     *
+     * @param iterations The number of PBKDF2 iterations for new hashes.
+     * @throws IllegalArgumentException If the number of iterations is less than 1.
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("The number of iterations must be at least 1.");
+        }
+        this.iterations = iterations;
+    }
+    /**
+     * Gets the number of iterations used for new hashes.
+     *
+     * @return The number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations);
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + iterations + ":" + base64.encodeToString(salt) + ":" + base64.encodeToString(hash);
+    }
+    @Override
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            // Legacy plaintext, compared in constant time, after a derivation so that it costs as much as a hash
+            deriveForTiming(password);
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split(":");
+        if (parts.length != 3) {
+            deriveForTiming(password);
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            if (storedIterations < 1 || expected.length == 0 || expected.length > 64) {
+                deriveForTiming(password);
+                return false;
+            }
+            return MessageDigest.isEqual(derive(password, salt, storedIterations, expected.length * 8), expected);
+        } catch (IllegalArgumentException e) {
+            // Malformed iteration count or Base64; a corrupt hash matches no password
+            deriveForTiming(password);
+            return false;
+        }
+    }
+    @Override
+    public boolean needsRehash(String stored) {
+        return stored == null || !stored.startsWith(PREFIX + iterations + ":");
+    }
+    /**
+     * Runs one derivation at the current work factor and discards it, so that a check that needs no derivation
+     * takes as long as one that does.
+     *
+     * @param password The password being checked.
+     */
+    private void deriveForTiming(String password) {
+        derive(password, TIMING_SALT, iterations);
+    }
+    /**
+     * Derives a hash of the default length from a password.
+     *
+     * @param password The password.
+     * @param salt The salt.
+     * @param iterations The number of iterations.
+     * @return The derived hash.
+     */
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        return derive(password, salt, iterations, HASH_BITS);
+    }
+    /**
+     * Derives a hash from a password.
+     *
+     * @param password The password.
+     * @param salt The salt.
+     * @param iterations The number of iterations.
+     * @param bits The length of the hash in bits.
+     * @return The derived hash.
+     */
+    private static byte[] derive(String password, byte[] salt, int iterations, int bits) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 is a required algorithm of every Java platform
+            throw new IllegalStateException("Password hashing is unavailable.", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package service;
+
+import java.util.List;
+
+import model.project.Project;
+
+/**
+ * The ProjectPage class holds one page of a sorted project listing, together with the cursor from which
+ * the following page continues. Cursors record the sort key of the last project on the page rather than
+ * a position, so a page follows on correctly even if projects were added or removed in between.
+ */
+public class ProjectPage {
+    private final List<Project> projects;
+    private final Cursor next;
+
+    /**
+     * Constructs a page.
+     *
+     * @param projects The projects on the page, in listing order.
+     * @param next The cursor of the following page, or null if this is the last page.
+     */
+    public ProjectPage(List<Project> projects, Cursor next) {
+        this.projects = List.copyOf(projects);
+        this.next = next;
+    }
+    /**
+     * Gets the projects on this page.
+     *
+     * @return An unmodifiable list of the projects, in listing order.
+     */
+    public List<Project> getProjects() {
+        return projects;
+    }
+    /**
+     * Gets the cursor from which the following page continues.
+     *
+     * @return The cursor, or null if this is the last page.
+     */
+    public Cursor getNext() {
+        return next;
+    }
+    /**
+     * Checks whether more projects follow this page.
+     *
+     * @return true if there is a following page.
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * The sort key of the last project on a page. Only the field of the listing's order is used:
+     * the price when sorting by price, otherwise the case-folded name. The project ID breaks ties.
+     *
+     * @param byPrice Whether the listing is sorted by price rather than by name.
+     * @param price The lowest available price of the last project.
+     * @param name The case-folded name of the last project.
+     * @param projectId The ID of the last project.
+     */
+    public record Cursor(boolean byPrice, double price, String name, int projectId) {
+    }
+}
@@ -2,11 +2,13 @@ package service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import data.OfficerAssignmentIndex;
 import data.ProjectRepository;
 import model.project.FlatType;
 import model.project.Project;
@@ -49,13 +51,17 @@ public class ProjectService {
     }
 
     /**
-     * Finds a project by its name from a list of projects.
+     * Finds a project by its name from a list of projects, ignoring case.
+     * When the list is the repository's list of all projects, the project is looked up by name instead of searched for.
      * 
      * @param name The name of the project to find.
      * @param projects The list of projects to search in.
      * @return The project with the matching name or null if no such project exists.
      */
     public static Project findByName(String name, List<Project> projects) {
+        if (projects == ProjectRepository.getAllProjects()) {
+            return ProjectRepository.findByName(name);
+        }
         return projects.stream()
                 .filter(p -> p.getProjectName().equalsIgnoreCase(name))
                 .findFirst()
@@ -148,6 +154,8 @@ public class ProjectService {
      */
     public static void deleteProject(Project project) {
         ProjectRepository.removeProject(project);
+        EligibilityCache.evict(project);
+        OfficerAssignmentIndex.removeProject(project);
     }
 
     /**
@@ -199,36 +207,21 @@ public class ProjectService {
      */
     public List<Project> searchProjects(Applicant applicant) {
         ProjectSearchCriteria criteria = applicant.getSearchCriteria();
-        List<Project> allProjects = ProjectRepository.getAllProjects();
-    
-        return allProjects.stream()
-            // Filter by neighbourhood
-            .filter(p -> criteria.getNeighbourhood() == null || criteria.getNeighbourhood().isEmpty()
-                || p.getNeighbourhood().equalsIgnoreCase(criteria.getNeighbourhood()))
-    
-            // Filter by flat types (any one match)
-            .filter(p -> criteria.getFlatTypes().isEmpty() ||
-                criteria.getFlatTypes().stream().anyMatch(ft -> p.getFlatUnits().containsKey(ft)))
-    
-            // Sort by price (based on first matching flat type)
-            .sorted((p1, p2) -> {
-                if (!criteria.isSortByPriceAscending()) return 0;
-                Optional<FlatType> typeToCompare = criteria.getFlatTypes().stream()
-                    .filter(ft -> p1.getFlatUnits().containsKey(ft) && p2.getFlatUnits().containsKey(ft))
-                    .findFirst();
-    
-                if (typeToCompare.isEmpty()) return 0;
-    
-                double price1 = p1.getFlatPrice(typeToCompare.get());
-                double price2 = p2.getFlatPrice(typeToCompare.get());
-                return Double.compare(price1, price2);
-            })
-    
-            .collect(Collectors.toList());
+        // Filter by neighbourhood and flat types (any one offered) through the search index
+        List<Project> matches = ProjectRepository.getSearchIndex()
+            .search(criteria.getNeighbourhood(), criteria.getFlatTypes(), false, false, null);
+
+        // Sort by price (based on first matching flat type), with each project's price looked up once
+        if (!criteria.isSortByPriceAscending()) {
+            return matches;
+        }
+        return ProjectSorter.byPriceOf(matches, criteria.getFlatTypes());
     }
 
     /**
      * Filters and sorts projects based on an applicant's criteria.
+     * Eligible projects are found through the search index; when a subset of the projects is given,
+     * the result is limited to that subset.
      * 
      * @param applicant The applicant whose search criteria will be used.
      * @param projects The list of projects to filter and sort.
@@ -236,10 +229,77 @@ public class ProjectService {
      * @return A list of filtered and sorted projects.
      */
     public List<Project> filterAndSortProjects(Applicant applicant, List<Project> projects, ProjectSearchCriteria criteria) {
-        return projects.stream()
-            .filter(project -> isProjectEligible(applicant, project, criteria))
-            .sorted((p1, p2) -> compareProjects(p1, p2, criteria))
-            .collect(Collectors.toList());
+        List<Project> matches = findEligibleProjects(applicant, projects, criteria);
+        // Same order as compareProjects, with each project's sort key computed once
+        if (criteria.isSortByPriceAscending()) {
+            return ProjectSorter.byLowestAvailablePrice(matches);
+        }
+        return ProjectSorter.byNameDescending(matches);
+    }
+
+    /**
+     * Retrieves one page of the projects an applicant can apply for under their criteria, in the order of
+     * {@link #filterAndSortProjects} with ties broken by project ID. Projects without a flat type that is both
+     * selected in the criteria and open to the applicant are left out, so every project on the page can be shown.
+     * Only the requested page is sorted.
+     * 
+     * @param applicant The applicant whose eligibility is checked.
+     * @param projects The list of projects to list.
+     * @param criteria The search criteria to filter and sort projects by.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param pageSize The maximum number of projects on the page.
+     * @return The page of projects.
+     * @throws IllegalArgumentException If the page size is less than 1.
+     */
+    public ProjectPage findEligibleProjectsPage(Applicant applicant, List<Project> projects, ProjectSearchCriteria criteria,
+                                                ProjectPage.Cursor after, int pageSize) {
+        List<Project> matches = findEligibleProjects(applicant, projects, criteria);
+        matches.removeIf(project -> !hasEligibleFlatType(applicant, project, criteria));
+        return ProjectSorter.page(matches, criteria.isSortByPriceAscending(), after, pageSize);
+    }
+
+    /**
+     * Checks whether a project offers a flat type that is selected in the criteria (or any, if none is selected)
+     * and that the applicant is eligible for.
+     * 
+     * @param applicant The applicant whose eligibility is checked.
+     * @param project The project to check.
+     * @param criteria The search criteria holding the selected flat types.
+     * @return true if at least one such flat type exists.
+     */
+    public boolean hasEligibleFlatType(Applicant applicant, Project project, ProjectSearchCriteria criteria) {
+        Set<FlatType> selectedTypes = criteria.getFlatTypes();
+        for (FlatType type : FlatType.values()) {
+            if ((selectedTypes.isEmpty() || selectedTypes.contains(type))
+                    && EligibilityCache.isEligible(applicant, project, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the projects matching an applicant's criteria through the search index, unsorted.
+     * When a subset of the projects is given, the result is limited to that subset.
+     * 
+     * @param applicant The applicant whose search criteria will be used.
+     * @param projects The list of projects to search in.
+     * @param criteria The search criteria to filter projects by.
+     * @return A new list of the matching projects.
+     */
+    private List<Project> findEligibleProjects(Applicant applicant, List<Project> projects, ProjectSearchCriteria criteria) {
+        Project applicantProject = applicant.hasApplied() ? applicant.getApplication().getProject() : null;
+        List<Project> matches = ProjectRepository.getSearchIndex()
+            .search(criteria.getNeighbourhood(), criteria.getFlatTypes(), true, true, applicantProject);
+        if (projects != ProjectRepository.getAllProjects()) {
+            // Keep only the matches within the given projects, in their order
+            Set<Project> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+            matching.addAll(matches);
+            matches = projects.stream()
+                .filter(matching::contains)
+                .collect(Collectors.toList());
+        }
+        return matches;
     }
 
     /**
@@ -249,15 +309,7 @@ public class ProjectService {
      * @return The lowest available price, or 0 if no available prices exist.
      */
     public double getLowestAvailablePrice(Project project) {
-        double min = Double.MAX_VALUE;
-        for (FlatType type : FlatType.values()) {
-            int supply = project.getNumUnits(type);
-            double price = project.getFlatPrice(type);
-            if (supply > 0 && price < min) {
-                min = price;
-            }
-        }
-        return min == Double.MAX_VALUE ? 0 : min;
+        return ProjectSorter.lowestAvailablePrice(project);
     }
 
     /**
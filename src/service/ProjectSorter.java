@@ -0,0 +1,208 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import model.project.FlatType;
+import model.project.Project;
+
+/**
+ * The ProjectSorter class orders project listings by computing each project's sort key once per listing
+ * (decorate-sort-undecorate), instead of recomputing prices or case-folded names inside every comparison.
+ * A listing of n projects therefore costs n key computations and O(n log n) comparisons of plain values.
+ * All sorts are stable: projects with equal keys keep their relative order.
+ * <p>
+ * Paged listings go further and select only the requested page with a bounded heap, in O(n log k) for a page
+ * of k projects, without sorting the rest.
+ */
+public class ProjectSorter {
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+    /** Cheapest first, then by project ID. */
+    private static final Comparator<PageKey> PRICE_ORDER = Comparator.comparingDouble(PageKey::price)
+            .thenComparingInt(PageKey::projectId);
+    /** Reverse alphabetical, then by project ID. */
+    private static final Comparator<PageKey> NAME_ORDER = ((Comparator<PageKey>) (a, b) -> b.name().compareTo(a.name()))
+            .thenComparingInt(PageKey::projectId);
+
+    /**
+     * Constructs a ProjectSorter instance.
+     * All methods are static, so this constructor is not normally needed.
+     */
+    public ProjectSorter() {
+        // All methods are static
+    }
+    /**
+     * Sorts projects by their lowest price among flat types with units left, cheapest first.
+     * Projects with no units left have a price of 0, as in {@link ProjectService#getLowestAvailablePrice(Project)}.
+     *
+     * @param projects The projects to sort.
+     * @return A new list of the projects in price order.
+     */
+    public static List<Project> byLowestAvailablePrice(List<Project> projects) {
+        return sortByPrice(projects, ProjectSorter::lowestAvailablePrice);
+    }
+    /**
+     * Sorts projects by the price of the first of the given flat types they offer, cheapest first.
+     * Flat types are tried in declaration order. With no flat types given, the order is left unchanged.
+     *
+     * @param projects The projects to sort.
+     * @param flatTypes The flat types whose prices are compared.
+     * @return A new list of the projects in price order.
+     */
+    public static List<Project> byPriceOf(List<Project> projects, Set<FlatType> flatTypes) {
+        if (flatTypes.isEmpty()) {
+            return new ArrayList<>(projects);
+        }
+        return sortByPrice(projects, project -> {
+            for (FlatType type : FLAT_TYPES) {
+                if (flatTypes.contains(type) && project.getFlatUnits().containsKey(type)) {
+                    return project.getFlatPrice(type);
+                }
+            }
+            return 0.0;
+        });
+    }
+    /**
+     * Sorts projects by name in reverse alphabetical order, ignoring case.
+     *
+     * @param projects The projects to sort.
+     * @return A new list of the projects in reverse name order.
+     */
+    public static List<Project> byNameDescending(List<Project> projects) {
+        NameKey[] keys = new NameKey[projects.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Project project = projects.get(i);
+            keys[i] = new NameKey(foldCase(project.getProjectName()), project);
+        }
+        Arrays.sort(keys, (a, b) -> b.name().compareTo(a.name()));
+        List<Project> sorted = new ArrayList<>(keys.length);
+        for (NameKey key : keys) {
+            sorted.add(key.project());
+        }
+        return sorted;
+    }
+    /**
+     * Selects one page of projects in the order of {@link #byLowestAvailablePrice} or {@link #byNameDescending},
+     * with ties broken by project ID. Only the projects after the cursor are considered, and only the
+     * {@code pageSize} first of them are kept and sorted.
+     *
+     * @param projects The projects to list, in any order.
+     * @param byPrice Whether to sort by lowest available price rather than by name.
+     * @param after The cursor returned with the previous page, or null for the first page. A cursor of the
+     *              other order is ignored, so the listing starts over when the order changes.
+     * @param pageSize The maximum number of projects on the page.
+     * @return The page.
+     * @throws IllegalArgumentException If the page size is less than 1.
+     */
+    public static ProjectPage page(List<Project> projects, boolean byPrice, ProjectPage.Cursor after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        Comparator<PageKey> order = byPrice ? PRICE_ORDER : NAME_ORDER;
+        PageKey start = after == null || after.byPrice() != byPrice ? null
+                : new PageKey(after.price(), after.name(), after.projectId(), null);
+
+        // Max-heap of the best keys so far; its head is the first to give way to a better key
+        PriorityQueue<PageKey> best = new PriorityQueue<>(pageSize + 1, order.reversed());
+        int candidates = 0;
+        for (Project project : projects) {
+            PageKey key = byPrice
+                    ? new PageKey(lowestAvailablePrice(project), null, project.getProjectID(), project)
+                    : new PageKey(0, foldCase(project.getProjectName()), project.getProjectID(), project);
+            if (start != null && order.compare(key, start) <= 0) {
+                continue;
+            }
+            candidates++;
+            if (best.size() < pageSize) {
+                best.add(key);
+            } else if (order.compare(key, best.peek()) < 0) {
+                best.poll();
+                best.add(key);
+            }
+        }
+
+        PageKey[] keys = best.toArray(new PageKey[0]);
+        Arrays.sort(keys, order);
+        List<Project> page = new ArrayList<>(keys.length);
+        for (PageKey key : keys) {
+            page.add(key.project());
+        }
+        ProjectPage.Cursor next = null;
+        if (candidates > keys.length) {
+            PageKey last = keys[keys.length - 1];
+            next = new ProjectPage.Cursor(byPrice, last.price(), last.name(), last.projectId());
+        }
+        return new ProjectPage(page, next);
+    }
+    /**
+     * Computes the lowest price among the flat types of a project that have units left.
+     *
+     * @param project The project.
+     * @return The lowest available price, or 0 if no units are left.
+     */
+    static double lowestAvailablePrice(Project project) {
+        double min = Double.MAX_VALUE;
+        for (FlatType type : FLAT_TYPES) {
+            int supply = project.getNumUnits(type);
+            double price = project.getFlatPrice(type);
+            if (supply > 0 && price < min) {
+                min = price;
+            }
+        }
+        return min == Double.MAX_VALUE ? 0 : min;
+    }
+    /**
+     * Sorts projects by a price computed once per project.
+     *
+     * @param projects The projects to sort.
+     * @param price Computes the price key of a project.
+     * @return A new list of the projects in ascending key order.
+     */
+    private static List<Project> sortByPrice(List<Project> projects, ToDoubleFunction<Project> price) {
+        PriceKey[] keys = new PriceKey[projects.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Project project = projects.get(i);
+            keys[i] = new PriceKey(price.applyAsDouble(project), project);
+        }
+        Arrays.sort(keys, (a, b) -> Double.compare(a.price(), b.price()));
+        List<Project> sorted = new ArrayList<>(keys.length);
+        for (PriceKey key : keys) {
+            sorted.add(key.project());
+        }
+        return sorted;
+    }
+    /**
+     * Folds the case of a name so that comparing folded names orders them like {@link String#compareToIgnoreCase}.
+     *
+     * @param name The name.
+     * @return The folded name.
+     */
+    private static String foldCase(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A project decorated with its price key.
+     */
+    private record PriceKey(double price, Project project) {
+    }
+    /**
+     * A project decorated with its case-folded name.
+     */
+    private record NameKey(String name, Project project) {
+    }
+    /**
+     * A project decorated with the key of a paged listing; only the field of the listing's order is set.
+     */
+    private record PageKey(double price, String name, int projectId, Project project) {
+    }
+}
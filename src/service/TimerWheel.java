@@ -0,0 +1,192 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TimerWheel class schedules items to become due at a later time, for expiring many short-lived items
+ * such as booking holds. It is a hierarchical timing wheel: time is divided into ticks, and each of its levels
+ * is a ring of 64 buckets, where a bucket of level 0 spans one tick, a bucket of level 1 spans 64 ticks, and so
+ * on. An item is put in the bucket of the coarsest level that still tells its deadline apart, and moves down a
+ * level each time the wheel reaches that bucket, until it falls due in level 0. Scheduling and cancelling
+ * therefore take constant time however many items are pending, and advancing the wheel only touches the buckets
+ * that time has passed.
+ * <p>
+ * Deadlines are rounded up to a whole tick, and deadlines beyond the range of the top level are kept there and
+ * moved down once they come within range. The wheel has no thread of its own; it is moved forward by
+ * {@link #advance(long)}, which returns the items that have fallen due. All methods are synchronised.
+ *
+ * @param <T> The type of the scheduled items.
+ */
+public class TimerWheel<T> {
+    private static final int LEVEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> buckets;
+    private long currentTick;
+    private int pending;
+
+    /**
+     * The Timeout class is the handle of one scheduled item, through which it can be cancelled.
+     *
+     * @param <T> The type of the scheduled item.
+     */
+    public static class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+        /**
+         * Gets the scheduled item.
+         *
+         * @return The item.
+         */
+        public T getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * Constructs a wheel.
+     *
+     * @param tickMillis The length of one tick, in milliseconds, which is the precision of the deadlines.
+     * @param startMillis The current time, in milliseconds.
+     * @throws IllegalArgumentException If the tick is not positive.
+     */
+    public TimerWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("The tick must be positive.");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets = new ArrayList<>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+    /**
+     * Schedules an item.
+     *
+     * @param item The item.
+     * @param deadlineMillis The time at which the item falls due, in milliseconds.
+     * @return The handle of the scheduled item.
+     */
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        // Round up, and never into the current tick, which advance() has already processed
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        place(timeout);
+        pending++;
+        return timeout;
+    }
+    /**
+     * Cancels a scheduled item, so that it is never returned as due. Cancelling an item that has already
+     * fallen due or been cancelled has no effect.
+     *
+     * @param timeout The handle of the item.
+     * @return true if the item was pending and is now cancelled.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.cancelled || timeout.deadlineTick <= currentTick) {
+            return false;
+        }
+        timeout.cancelled = true;
+        pending--;
+        return true;
+    }
+    /**
+     * Moves the wheel forward to the given time.
+     *
+     * @param nowMillis The current time, in milliseconds.
+     * @return A new list of the items that fell due, in order of their deadlines.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        if (pending == 0 && targetTick > currentTick) {
+            // Nothing can fall due, so the buckets in between need not be visited
+            currentTick = targetTick;
+            return due;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Move down the coarser buckets that have just been reached, from the top level down
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (LEVEL_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Timeout<T>> bucket = bucket(0, currentTick);
+            for (Timeout<T> timeout : bucket) {
+                if (!timeout.cancelled) {
+                    due.add(timeout.item);
+                    pending--;
+                }
+            }
+            bucket.clear();
+            if (pending == 0) {
+                currentTick = Math.max(currentTick, targetTick);
+            }
+        }
+        return due;
+    }
+    /**
+     * Gets the number of items that are scheduled and neither due nor cancelled.
+     *
+     * @return The number of pending items.
+     */
+    public synchronized int size() {
+        return pending;
+    }
+    /**
+     * Puts a scheduled item in the bucket of the coarsest level that tells its deadline apart from now.
+     *
+     * @param timeout The item.
+     */
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS - 1; level++) {
+            if (delta < 1L << (LEVEL_BITS * (level + 1))) {
+                bucket(level, timeout.deadlineTick).add(timeout);
+                return;
+            }
+        }
+        int top = LEVELS - 1;
+        long span = 1L << (LEVEL_BITS * LEVELS);
+        // Too far ahead for the top level; park it in the last bucket in range and place it again from there
+        long tick = delta < span ? timeout.deadlineTick : currentTick + span - (1L << (LEVEL_BITS * top));
+        bucket(top, tick).add(timeout);
+    }
+    /**
+     * Empties the current bucket of a level, placing its items again at the finer levels.
+     *
+     * @param level The level.
+     */
+    private void cascade(int level) {
+        List<Timeout<T>> bucket = bucket(level, currentTick);
+        List<Timeout<T>> moving = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Timeout<T> timeout : moving) {
+            if (!timeout.cancelled) {
+                place(timeout);
+            }
+        }
+    }
+    /**
+     * Gets the bucket of a level that a tick falls in.
+     *
+     * @param level The level.
+     * @param tick The tick.
+     * @return The bucket.
+     */
+    private List<Timeout<T>> bucket(int level, long tick) {
+        int slot = (int) (tick >>> (LEVEL_BITS * level)) & (WHEEL_SIZE - 1);
+        return buckets.get(level * WHEEL_SIZE + slot);
+    }
+}
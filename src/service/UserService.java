@@ -1,28 +1,110 @@
 package service;
 
+import data.Journal;
+import data.OfficerAssignmentIndex;
 import model.user.Applicant;
 import model.user.HDBOfficer;
 import model.user.HDBManager;
 import model.user.User;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class responsible for handling user-related operations such as authentication,
  * password management, and retrieving user details based on different criteria.
+ * <p>
+ * Users are indexed by upper-cased NRIC and name, so lookups and logins take constant time regardless of
+ * the number of users. Users must therefore be added through {@link #addUser(User)} and renamed through
+ * {@link #renameUser(User, String)} once the service has been created. When several users share an NRIC
+ * or a name, lookups return the first of them, as a search of the user list would.
+ * <p>
+ * Users are also kept in one list per role, in the order they were added, so that listing the users of a role
+ * neither filters nor copies the user list. Officers are applicants too and appear in both lists.
+ * <p>
+ * Passwords are checked and stored through a {@link PasswordHasher}. Passwords still stored in plaintext are
+ * replaced by a hash on the user's next successful login, and so are hashes made with an outdated work factor.
+ * The new hash is journalled like a password change, so it survives restarts. A login with an unknown NRIC is
+ * checked against a dummy hash made by the same hasher, so it takes as long as one with a wrong password and
+ * does not reveal which NRICs exist.
  */
 public class UserService {
 
     private List<User> users;  // Holds the loaded users from DataLoader
+    private final PasswordHasher passwordHasher;
+    // Verified against when no user has the NRIC, so that the miss costs as much as a wrong password
+    private final String dummyHash;
+    private final Map<String, User> usersByNric = new ConcurrentHashMap<>();
+    private final Map<String, User> usersByName = new ConcurrentHashMap<>();
+    private final List<Applicant> applicants = new ArrayList<>();
+    private final List<HDBOfficer> officers = new ArrayList<>();
+    private final List<HDBManager> managers = new ArrayList<>();
+    // Read-only views of the role lists, handed out instead of copies
+    private final List<Applicant> applicantsView = Collections.unmodifiableList(applicants);
+    private final List<HDBOfficer> officersView = Collections.unmodifiableList(officers);
+    private final List<HDBManager> managersView = Collections.unmodifiableList(managers);
 
     /**
      * Constructor that initializes the service with a list of pre-loaded users.
+     * Passwords are hashed with PBKDF2 at the default work factor.
      *
      * @param users A list of users loaded from the data source.
      */
     public UserService(List<User> users) {
+        this(users, new Pbkdf2PasswordHasher());
+    }
+
+    /**
+     * Constructor that initializes the service with a list of pre-loaded users and the hasher for their passwords.
+     *
+     * @param users A list of users loaded from the data source.
+     * @param passwordHasher The hasher used to check and store passwords.
+     */
+    public UserService(List<User> users, PasswordHasher passwordHasher) {
         this.users = users;
+        this.passwordHasher = passwordHasher;
+        this.dummyHash = passwordHasher.hash("dummy-password");
+        for (User user : users) {
+            index(user);
+        }
+    }
+
+    /**
+     * Adds a new user to the system.
+     *
+     * @param user The user to add.
+     */
+    public synchronized void addUser(User user) {
+        users.add(user);
+        index(user);
+    }
+
+    /**
+     * Changes the name of a user, keeping the name index up to date.
+     *
+     * @param user The user to rename.
+     * @param newName The new name.
+     */
+    public synchronized void renameUser(User user, String newName) {
+        String oldName = user.getName();
+        user.setName(newName);
+        if (oldName != null && usersByName.remove(key(oldName), user)) {
+            // Another user with the old name may have been hidden behind this one
+            for (User other : users) {
+                if (other.getName() != null && key(other.getName()).equals(key(oldName))) {
+                    usersByName.putIfAbsent(key(oldName), other);
+                    break;
+                }
+            }
+        }
+        if (newName != null) {
+            usersByName.putIfAbsent(key(newName), user);
+        }
     }
 
     /** 
@@ -32,9 +114,7 @@ public class UserService {
      * @return Optional<User> An Optional containing the user if found, otherwise an empty Optional.
      */
     public Optional<User> findUserByNric(String nric) {
-        return users.stream()
-                .filter(user -> user.getNric().equalsIgnoreCase(nric))
-                .findFirst();
+        return nric == null ? Optional.empty() : Optional.ofNullable(usersByNric.get(key(nric)));
     }
 
     /** 
@@ -44,9 +124,7 @@ public class UserService {
      * @return Optional<User> An Optional containing the user if found, otherwise an empty Optional.
      */
     public Optional<User> findUserByUsername(String username) {
-        return users.stream()
-                .filter(user -> user.getName().equalsIgnoreCase(username))
-                .findFirst();
+        return username == null ? Optional.empty() : Optional.ofNullable(usersByName.get(key(username)));
     }
 
     /** 
@@ -56,15 +134,14 @@ public class UserService {
      * @return Optional<Applicant> An Optional containing the applicant if found, otherwise an empty Optional.
      */
     public Optional<Applicant> findApplicantByNric(String nric) {
-        return users.stream()
+        return findUserByNric(nric)
                 .filter(user -> user instanceof Applicant)
-                .map(user -> (Applicant) user)
-                .filter(applicant -> applicant.getNric().equalsIgnoreCase(nric))
-                .findFirst();
+                .map(user -> (Applicant) user);
     }
 
     /** 
-     * Authenticates a user by their NRIC and password.
+     * Authenticates a user by their NRIC and password. A plaintext or outdated stored password is rehashed
+     * once the password has been verified.
      * 
      * @param nric The NRIC of the user to authenticate.
      * @param password The password of the user.
@@ -73,10 +150,15 @@ public class UserService {
     public Optional<User> authenticate(String nric, String password) {
         if (!ValidationService.isValidNric(nric)) return Optional.empty();
     
-        return users.stream()
-                .filter(user -> user.getNric().equalsIgnoreCase(nric))
-                .filter(user -> user.getPassword().equals(password))
-                .findFirst();
+        Optional<User> found = findUserByNric(nric);
+        if (found.isEmpty()) {
+            passwordHasher.verify(password, dummyHash);
+            return Optional.empty();
+        }
+        Optional<User> userOpt = found.filter(user -> passwordHasher.verify(password, user.getPassword()));
+        userOpt.filter(user -> passwordHasher.needsRehash(user.getPassword()))
+                .ifPresent(user -> storePassword(user, password));
+        return userOpt;
     }
 
     /** 
@@ -116,63 +198,62 @@ public class UserService {
         Optional<User> userOpt = findUserByNric(nric);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (user.getPassword().equals(oldPassword)) {
-                user.setPassword(newPassword);
+            if (passwordHasher.verify(oldPassword, user.getPassword())) {
+                storePassword(user, newPassword);
                 return true;
             }
         }
         return false;   
     }
 
+    /**
+     * Hashes and sets a user's password, and journals the hash so that it survives a restart.
+     *
+     * @param user The user.
+     * @param password The new password in plaintext.
+     */
+    private void storePassword(User user, String password) {
+        String hash = passwordHasher.hash(password);
+        user.setPassword(hash);
+        Journal.record(Journal.Op.CHANGE_PASSWORD, user.getNric(), hash);
+    }
+
     /** 
      * Retrieves a list of all officers assigned to a specific manager.
      * 
      * @param manager The manager whose officers are to be retrieved.
-     * @return List<HDBOfficer> A list of HDB officers assigned to the manager's projects.
+     * @return List<HDBOfficer> A list of HDB officers assigned to the manager's projects, in the order they were
+     *         first assigned to one of them.
      */
     public List<HDBOfficer> getOfficersForManager(HDBManager manager) {
-        return users.stream()
-                .filter(user -> user instanceof HDBOfficer)
-                .map(user -> (HDBOfficer) user)
-                .filter(officer -> officer.getAssignedProjects().stream()
-                        .anyMatch(project -> manager.getManagedProjects().contains(project)))
-                .toList();
+        return OfficerAssignmentIndex.findOfficersForManager(manager);
     }
 
     /** 
      * Retrieves a list of all applicants.
      * 
-     * @return List<Applicant> A list of all applicants.
+     * @return List<Applicant> A read-only list of all applicants, including officers, that reflects users added later.
      */
     public List<Applicant> getAllApplicants() {
-        return users.stream()
-                .filter(user -> user instanceof Applicant)
-                .map(user -> (Applicant) user)
-                .toList();
+        return applicantsView;
     }
 
     /** 
      * Retrieves a list of all managers.
      * 
-     * @return List<HDBManager> A list of all managers.
+     * @return List<HDBManager> A read-only list of all managers that reflects users added later.
      */
     public List<HDBManager> getAllManagers() {
-        return users.stream()
-                .filter(user -> user instanceof HDBManager)
-                .map(user -> (HDBManager) user)
-                .toList();
+        return managersView;
     }
 
     /** 
      * Retrieves a list of all officers.
      * 
-     * @return List<HDBOfficer> A list of all officers.
+     * @return List<HDBOfficer> A read-only list of all officers that reflects users added later.
      */
     public List<HDBOfficer> getAllOfficers() {
-        return users.stream()
-                .filter(user -> user instanceof HDBOfficer)
-                .map(user -> (HDBOfficer) user)
-                .toList();
+        return officersView;
     }
 
     /** 
@@ -183,4 +264,38 @@ public class UserService {
     public List<User> getAllUsers() {
         return users;
     }
+
+    /**
+     * Adds a user to the list of each role it has, and to the NRIC and name indexes unless another user
+     * is already indexed under the same key.
+     *
+     * @param user The user to index.
+     */
+    private void index(User user) {
+        if (user instanceof Applicant applicant) {
+            applicants.add(applicant);
+        }
+        if (user instanceof HDBOfficer officer) {
+            officers.add(officer);
+        }
+        if (user instanceof HDBManager manager) {
+            managers.add(manager);
+        }
+        if (user.getNric() != null) {
+            usersByNric.putIfAbsent(key(user.getNric()), user);
+        }
+        if (user.getName() != null) {
+            usersByName.putIfAbsent(key(user.getName()), user);
+        }
+    }
+
+    /**
+     * Normalises an NRIC or name for case-insensitive lookup.
+     *
+     * @param value The NRIC or name.
+     * @return The lookup key.
+     */
+    private static String key(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
 }
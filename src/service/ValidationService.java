@@ -1,11 +1,23 @@
 package service;
 
+import java.util.BitSet;
+import java.util.List;
+
 /**
  * A utility service class for validating common input data such as NRICs, passwords, and dates.
  * This class provides static methods to perform various validation checks.
  * It is not intended to be instantiated, as it contains only static utility methods.
+ * <p>
+ * The checks are written out character by character rather than as regular expressions, since they run on every
+ * login and for every user loaded.
  */
 public class ValidationService {
+    /** Check letters of S and T NRICs, indexed by the weighted digit sum modulo 11. */
+    private static final String ST_CHECK_LETTERS = "JZIHGFEDCBA";
+    /** Check letters of F and G NRICs, indexed by the weighted digit sum modulo 11. */
+    private static final String FG_CHECK_LETTERS = "XWUTRQPNMLK";
+    /** Weights of the seven NRIC digits in the checksum. */
+    private static final int[] NRIC_WEIGHTS = {2, 7, 6, 5, 4, 3, 2};
 
     // Private constructor to prevent instantiation
     private ValidationService() {
@@ -20,7 +32,59 @@ public class ValidationService {
      * @return true if the NRIC is valid according to the format, false otherwise.
      */
     public static boolean isValidNric(String nric) {
-        return nric != null && nric.matches("^[STFG]\\d{7}[A-Z]$");
+        if (nric == null || nric.length() != 9) {
+            return false;
+        }
+        char prefix = nric.charAt(0);
+        if (prefix != 'S' && prefix != 'T' && prefix != 'F' && prefix != 'G') {
+            return false;
+        }
+        for (int i = 1; i <= 7; i++) {
+            if (!isDigit(nric.charAt(i))) {
+                return false;
+            }
+        }
+        char suffix = nric.charAt(8);
+        return suffix >= 'A' && suffix <= 'Z';
+    }
+
+    /**
+     * Validates whether the given NRIC is in the correct format and ends with the check letter matching its digits.
+     * The check letter is derived from the weighted sum of the digits (plus 4 for T and G prefixes) modulo 11.
+     *
+     * @param nric The NRIC to validate.
+     * @return true if the NRIC is well-formed and its check letter is correct, false otherwise.
+     */
+    public static boolean isValidNricChecksum(String nric) {
+        if (!isValidNric(nric)) {
+            return false;
+        }
+        char prefix = nric.charAt(0);
+        int sum = prefix == 'T' || prefix == 'G' ? 4 : 0;
+        for (int i = 0; i < NRIC_WEIGHTS.length; i++) {
+            sum += (nric.charAt(i + 1) - '0') * NRIC_WEIGHTS[i];
+        }
+        String letters = prefix == 'S' || prefix == 'T' ? ST_CHECK_LETTERS : FG_CHECK_LETTERS;
+        return nric.charAt(8) == letters.charAt(sum % 11);
+    }
+
+    /**
+     * Validates many NRICs at once, for example while loading users.
+     *
+     * @param nrics The NRICs to validate.
+     * @param checkChecksum Whether the check letter must also be correct, rather than only the format.
+     * @return The positions in the list of the NRICs that are invalid; empty if all are valid.
+     */
+    public static BitSet findInvalidNrics(List<String> nrics, boolean checkChecksum) {
+        BitSet invalid = new BitSet();
+        int i = 0;
+        for (String nric : nrics) {
+            if (checkChecksum ? !isValidNricChecksum(nric) : !isValidNric(nric)) {
+                invalid.set(i);
+            }
+            i++;
+        }
+        return invalid;
     }
 
     /** 
@@ -54,6 +118,24 @@ public class ValidationService {
      * @return true if the date is in the correct format, false otherwise.
      */
     public static boolean isValidDate(String date) {
-        return date != null && date.matches("\\d{4}-\\d{2}-\\d{2}");
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < date.length(); i++) {
+            if (i != 4 && i != 7 && !isDigit(date.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a character is an ASCII digit, like {@code \d} in a regular expression.
+     *
+     * @param c The character.
+     * @return true if the character is 0 to 9.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
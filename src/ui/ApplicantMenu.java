@@ -6,6 +6,7 @@ import model.project.Project;
 import model.project.ProjectSearchCriteria;
 import model.transaction.Enquiry;
 import model.user.Applicant;
+import service.ProjectPage;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,6 +20,8 @@ import java.util.Set;
  * It acts as the main interface for the applicant within the system.
  */
 public class ApplicantMenu {
+    /** Number of projects shown per page when browsing eligible projects. */
+    private static final int PAGE_SIZE = 10;
     private final ApplicantController applicantController = new ApplicantController();
 
     
@@ -46,10 +49,7 @@ public class ApplicantMenu {
             switch (choice) {
                 case 1 -> {
                     CLIView.printMessage("Applicant Name : " + applicant.getName());
-                    CLIView.printMessage("Available Projects (Eligible Only):");
-                    CLIView.printFormatter("%-20s %-20s %-10s %-10s %-10s %-10s %n", "Project Name", "Neighbourhood", "TWO_ROOM", "Price", "THREE_ROOM", "Price");
-                    CLIView.printMessage("------------------------------------------------------------------------------------");
-                    applicantController.viewProjects(applicant, projects);
+                    browseEligibleProjects(applicant, projects);
                 }
                 case 2 -> changeProjectFilterSettings(applicant, projects);
                 case 3 -> handleApply(applicant, projects);
@@ -71,6 +71,26 @@ public class ApplicantMenu {
             }
         }
     }
+    /**
+     * Displays the eligible projects one page at a time, letting the applicant move on to the next page
+     * or stop browsing.
+     *
+     * @param applicant The applicant browsing the projects.
+     * @param projects  The list of available BTO projects.
+     */
+    private void browseEligibleProjects(Applicant applicant, List<Project> projects) {
+        CLIView.printMessage("Available Projects (Eligible Only):");
+        CLIView.printFormatter("%-20s %-20s %-10s %-10s %-10s %-10s %n", "Project Name", "Neighbourhood", "TWO_ROOM", "Price", "THREE_ROOM", "Price");
+        CLIView.printMessage("------------------------------------------------------------------------------------");
+        ProjectPage.Cursor next = applicantController.viewProjectsPage(applicant, projects, null, PAGE_SIZE);
+        while (next != null) {
+            String input = CLIView.prompt("Press Enter for more projects (enter 0 to stop): ");
+            if ("0".equals(input.trim())) {
+                return;
+            }
+            next = applicantController.viewProjectsPage(applicant, projects, next, PAGE_SIZE);
+        }
+    }
     /**
      * Prompts the applicant for project and flat type selection, and initiates the application.
      *
@@ -115,10 +135,7 @@ public class ApplicantMenu {
      * @param projects  The list of available BTO projects.
      */
     private void createEnquiry(Applicant applicant, List<Project> projects) {
-        CLIView.printMessage("Available Projects (Eligible Only):");
-        CLIView.printFormatter("%-20s %-20s %-10s %-10s %-10s %-10s %n", "Project Name", "Neighbourhood", "TWO_ROOM", "Price", "THREE_ROOM", "Price");
-        CLIView.printMessage("------------------------------------------------------------------------------------");
-        applicantController.viewProjects(applicant, projects);
+        browseEligibleProjects(applicant, projects);
         // Step 1: Show eligible projects
         Project selectedProject = CLIView.promptProject(projects);
         
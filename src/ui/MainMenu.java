@@ -1,41 +1,42 @@
 package ui;
 
 import controller.AuthenticationController;
-import data.DataSaver;
+import data.IncrementalSaver;
+import data.Journal;
 import data.ProjectRepository;
 import model.project.Project;
-import model.transaction.Enquiry;
-import model.transaction.Application;
 import model.user.Applicant;
 import model.user.HDBOfficer;
 import model.user.HDBManager;
 import model.user.User;
 import service.UserService;
 
-import java.util.ArrayList;
 import java.util.List;
 /**
  * Represents the main menu of the BTO Management System.
- * Handles user login, password changes, and system exit with data saving.
+ * Handles user login, password changes, saving data in the background, and system exit with data saving.
  */
 public class MainMenu {
     private final AuthenticationController authController;
     private final UserService userService;
+    private final IncrementalSaver saver;
     /**
-     * Constructs the MainMenu with the provided list of users.
+     * Constructs the MainMenu with the provided list of users and the saver used on exit.
      *
      * @param allUsers List of all users in the system.
+     * @param saver The saver that writes only changed records.
      */
-    public MainMenu(List<User> allUsers) {
+    public MainMenu(List<User> allUsers, IncrementalSaver saver) {
         // Initialize the UserService with the list of all users
         this.userService = new UserService(allUsers);
         this.authController = new AuthenticationController(userService);
+        this.saver = saver;
     }
     /**
-     * Displays the main menu and handles user input for login, password change, and exit.
+     * Displays the main menu and handles user input for login, password change, saving, and exit.
      */
     public void show() {
-        String[] mainOptions = {"Login", "Change Password", "Exit"};
+        String[] mainOptions = {"Login", "Change Password", "Save Now", "Exit"};
 
         while (true) {
             CLIView.printHeader("Welcome to the BTO Management System");
@@ -46,21 +47,18 @@ public class MainMenu {
                 case 1 -> handleLogin(ProjectRepository.getAllProjects());
                 case 2 -> handlePasswordChange();
                 case 3 -> {
+                    // Written on the saver thread; the journal is kept, since changes made after this still need it
+                    saver.saveInBackground(ProjectRepository.getAllProjects());
+                    CLIView.printMessage("Saving data in the background.");
+                }
+                case 4 -> {
                     List<Project> allProjects = ProjectRepository.getAllProjects();
-                    List<Application> allApplications = new ArrayList<>();
-                    List<Enquiry> allEnquiries = new ArrayList<>();
-
-                    for (Project project : allProjects) {
-                        if (project.getApplications() != null)
-                            allApplications.addAll(project.getApplications());
-                        if (project.getEnquiries() != null)
-                            allEnquiries.addAll(project.getEnquiries());
-}
                     CLIView.printMessage("Exiting system. Goodbye!");
-                    DataSaver.saveApplications("src/data/ApplicationList.csv", allApplications);
-                    DataSaver.saveEnquiries("src/data/EnquiryList.csv", allEnquiries);
-                    DataSaver.saveProjects("src/data/ProjectList.csv", allProjects);
-
+                    // The journal is only emptied once its changes are safely in the data files
+                    if (saver.save(allProjects)) {
+                        Journal.checkpoint();
+                    }
+                    Journal.close();
                     return;
                 }
                 default -> CLIView.printError("Invalid option. Try again.");
@@ -90,7 +88,7 @@ public class MainMenu {
                 new OfficerMenu(officer, projects, applicantList).showMenu();
             }
             case Applicant applicant -> new ApplicantMenu().show(applicant, projects);
-            case HDBManager manager -> new ManagerMenu(manager, projects, userService.getAllUsers()).showMenu();
+            case HDBManager manager -> new ManagerMenu(manager, projects, userService).showMenu();
             default -> CLIView.printError("This user type is not yet supported.");
         }
     }
@@ -5,7 +5,6 @@ import controller.EnquiryController;
 import model.project.Project;
 import model.user.HDBManager;
 import model.user.HDBOfficer;
-import model.user.User;
 import service.UserService;
 import service.ProjectService;
 import model.transaction.Application;
@@ -14,6 +13,7 @@ import model.project.FlatType;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 /**
  * Represents the CLI menu interface for HDB Managers to manage BTO projects, officer registrations,
@@ -28,20 +28,20 @@ public class ManagerMenu {
     private ManagerController managerController;
     private EnquiryController enquiryController;
     private List<Project> allProjects;
-    private List<User> allUsers;
+    private UserService userService;
     /**
      * Constructs the manager menu interface.
      *
      * @param manager     The currently logged-in HDBManager.
      * @param allProjects The list of all BTO projects in the system.
-     * @param allUsers    The list of all users in the system.
+     * @param userService The service holding all users in the system.
      */
-    public ManagerMenu(HDBManager manager, List<Project> allProjects, List<User> allUsers) {
+    public ManagerMenu(HDBManager manager, List<Project> allProjects, UserService userService) {
         this.manager = manager;
         this.managerController = new ManagerController();
         this.enquiryController = new EnquiryController();
         this.allProjects = allProjects;
-        this.allUsers = allUsers;
+        this.userService = userService;
     }
     /**
      * Displays the main menu for HDB Managers and handles menu navigation based on user input.
@@ -53,6 +53,7 @@ public class ManagerMenu {
             "View and Manage Applicant Applications",
             "View and Manage Enquiries",
             "Generate Report",
+            "Run Ballot for Pending Applications",
             "Exit"
         };
         
@@ -71,7 +72,8 @@ public class ManagerMenu {
                 case 3 -> manageApplicantApplicationsMenu();
                 case 4 -> new EnquiryMenu(manager, manager.getManagedProjects(), enquiryController).show();
                 case 5 -> generateReportMenu();
-                case 6 -> {
+                case 6 -> runBallotMenu();
+                case 7 -> {
                     exit = true;
                     CLIView.printMessage("Exiting Manager Menu...");
                 }
@@ -152,13 +154,10 @@ public class ManagerMenu {
         newProject.addFlatUnit(FlatType.THREE_ROOM, num3Room);
         newProject.setVisible(true);  // Set project to visible by default
         newProject.setManager(manager);  // Set the manager for the project
-        for (Project project : allProjects) {
-            // Check if the project name already exists
-            if (project.getProjectName().equalsIgnoreCase(name)) {
-                CLIView.printError("Project name already exists. Please choose a different name.");
-                return;
-            }
-            
+        // Check if the project name already exists
+        if (ProjectService.findByName(name, allProjects) != null) {
+            CLIView.printError("Project name already exists. Please choose a different name.");
+            return;
         }
         // Check if the project can be created
         if (managerController.canCreateNewProject(manager, newProject)) {
@@ -327,7 +326,6 @@ public class ManagerMenu {
             return;
         }
 
-        UserService userService = new UserService(allUsers);
         List<HDBOfficer> allOfficers = userService.getOfficersForManager(manager);
 
         managerController.viewOfficerRegistrations(managerProjects, allOfficers);
@@ -514,6 +512,26 @@ public class ManagerMenu {
         }
     }
 
+    /**
+     * Decides all pending applications of the manager's projects by ballot, after asking for the seed to draw
+     * it with. Reusing the seed of an earlier ballot on the same applications gives the same outcome.
+     */
+    private void runBallotMenu() {
+        String input = CLIView.prompt("Enter ballot seed (leave blank for a random seed): ").trim();
+        long seed;
+        try {
+            seed = input.isEmpty() ? new Random().nextLong() : Long.parseLong(input);
+        } catch (NumberFormatException e) {
+            CLIView.printError("Invalid seed. Please enter a whole number.");
+            return;
+        }
+        try {
+            managerController.runBallot(manager.getManagedProjects(), seed);
+        } catch (IllegalStateException e) {
+            CLIView.printError(e.getMessage());
+        }
+    }
+
     /**
      * Displays a menu that allows the HDB Manager to generate various filtered reports
      * on applications, such as by marital status, flat type, neighbourhood, age range, price, or no filter.
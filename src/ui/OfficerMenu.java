@@ -3,6 +3,7 @@ package ui;
 import controller.OfficerController;
 import controller.EnquiryController;
 import model.user.HDBOfficer;
+import service.BookingHold;
 import service.ProjectService;
 import model.user.Applicant;
 import model.project.Project;
@@ -232,8 +233,19 @@ public class OfficerMenu {
             return;
         }
 
-        // Step 5: Update status to BOOKED and decrease flat count
-        boolean booked = officerController.changeApplicationStatusToBooked(selectedApplicant);
+        // Step 5: Hold a flat while the booking is confirmed with the applicant
+        BookingHold hold = officerController.holdFlat(selectedApplicant);
+        if (hold == null) {
+            return;
+        }
+        String answer = CLIView.prompt("Confirm booking for " + selectedApplicant.getName() + "? (Y/N): ");
+        if (!answer.equalsIgnoreCase("Y")) {
+            officerController.releaseHold(hold);
+            return;
+        }
+
+        // Step 6: Update status to BOOKED
+        boolean booked = officerController.confirmBooking(hold);
         if (booked) {
             officerController.generateBookingReceipt(selectedApplicant);
         }
@@ -261,12 +273,7 @@ public class OfficerMenu {
      * @return The Project object, or null if not found.
      */
     private Project findProjectByName(String name) {
-        for (Project project : projectList) {
-            if (project.getProjectName().equalsIgnoreCase(name)) {
-                return project;
-            }
-        }
-        return null;
+        return ProjectService.findByName(name, projectList);
     }
 
     /**